@@ -0,0 +1,76 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.spring;
+
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.MessageListener;
+
+/**
+ * Consumer kept open by {@link CachingSession}. {@code close()} only removes a message listener.
+ */
+class CachedMessageConsumer implements MessageConsumer {
+
+  private final MessageConsumer target;
+
+  CachedMessageConsumer(MessageConsumer target) {
+    this.target = target;
+  }
+
+  @Override
+  public String getMessageSelector() throws JMSException {
+    return target.getMessageSelector();
+  }
+
+  @Override
+  public MessageListener getMessageListener() throws JMSException {
+    return target.getMessageListener();
+  }
+
+  @Override
+  public void setMessageListener(MessageListener listener) throws JMSException {
+    target.setMessageListener(listener);
+  }
+
+  @Override
+  public Message receive() throws JMSException {
+    return target.receive();
+  }
+
+  @Override
+  public Message receive(long timeout) throws JMSException {
+    return target.receive(timeout);
+  }
+
+  @Override
+  public Message receiveNoWait() throws JMSException {
+    return target.receiveNoWait();
+  }
+
+  @Override
+  public void close() throws JMSException {
+    if (target.getMessageListener() != null) {
+      target.setMessageListener(null);
+    }
+  }
+
+  void closeTarget() {
+    try {
+      target.close();
+    } catch (JMSException ignored) {
+      // session already closed
+    }
+  }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.spring;
+
+import jakarta.jms.CompletionListener;
+import jakarta.jms.Destination;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageProducer;
+
+/**
+ * Producer kept open by {@link CachingSession}. {@code close()} only restores the settings changed
+ * since the producer was handed out.
+ */
+class CachedMessageProducer implements MessageProducer {
+
+  private final MessageProducer target;
+  private Boolean originalDisableMessageID;
+  private Boolean originalDisableMessageTimestamp;
+  private Integer originalDeliveryMode;
+  private Integer originalPriority;
+  private Long originalTimeToLive;
+  private Long originalDeliveryDelay;
+
+  CachedMessageProducer(MessageProducer target) {
+    this.target = target;
+  }
+
+  @Override
+  public boolean getDisableMessageID() throws JMSException {
+    return target.getDisableMessageID();
+  }
+
+  @Override
+  public void setDisableMessageID(boolean value) throws JMSException {
+    if (originalDisableMessageID == null) {
+      originalDisableMessageID = target.getDisableMessageID();
+    }
+    target.setDisableMessageID(value);
+  }
+
+  @Override
+  public boolean getDisableMessageTimestamp() throws JMSException {
+    return target.getDisableMessageTimestamp();
+  }
+
+  @Override
+  public void setDisableMessageTimestamp(boolean value) throws JMSException {
+    if (originalDisableMessageTimestamp == null) {
+      originalDisableMessageTimestamp = target.getDisableMessageTimestamp();
+    }
+    target.setDisableMessageTimestamp(value);
+  }
+
+  @Override
+  public int getDeliveryMode() throws JMSException {
+    return target.getDeliveryMode();
+  }
+
+  @Override
+  public void setDeliveryMode(int deliveryMode) throws JMSException {
+    if (originalDeliveryMode == null) {
+      originalDeliveryMode = target.getDeliveryMode();
+    }
+    target.setDeliveryMode(deliveryMode);
+  }
+
+  @Override
+  public int getPriority() throws JMSException {
+    return target.getPriority();
+  }
+
+  @Override
+  public void setPriority(int defaultPriority) throws JMSException {
+    if (originalPriority == null) {
+      originalPriority = target.getPriority();
+    }
+    target.setPriority(defaultPriority);
+  }
+
+  @Override
+  public long getTimeToLive() throws JMSException {
+    return target.getTimeToLive();
+  }
+
+  @Override
+  public void setTimeToLive(long timeToLive) throws JMSException {
+    if (originalTimeToLive == null) {
+      originalTimeToLive = target.getTimeToLive();
+    }
+    target.setTimeToLive(timeToLive);
+  }
+
+  @Override
+  public long getDeliveryDelay() throws JMSException {
+    return target.getDeliveryDelay();
+  }
+
+  @Override
+  public void setDeliveryDelay(long deliveryDelay) throws JMSException {
+    if (originalDeliveryDelay == null) {
+      originalDeliveryDelay = target.getDeliveryDelay();
+    }
+    target.setDeliveryDelay(deliveryDelay);
+  }
+
+  @Override
+  public Destination getDestination() throws JMSException {
+    return target.getDestination();
+  }
+
+  @Override
+  public void close() throws JMSException {
+    if (originalDisableMessageID != null) {
+      target.setDisableMessageID(originalDisableMessageID);
+      originalDisableMessageID = null;
+    }
+    if (originalDisableMessageTimestamp != null) {
+      target.setDisableMessageTimestamp(originalDisableMessageTimestamp);
+      originalDisableMessageTimestamp = null;
+    }
+    if (originalDeliveryMode != null) {
+      target.setDeliveryMode(originalDeliveryMode);
+      originalDeliveryMode = null;
+    }
+    if (originalPriority != null) {
+      target.setPriority(originalPriority);
+      originalPriority = null;
+    }
+    if (originalTimeToLive != null) {
+      target.setTimeToLive(originalTimeToLive);
+      originalTimeToLive = null;
+    }
+    if (originalDeliveryDelay != null) {
+      target.setDeliveryDelay(originalDeliveryDelay);
+      originalDeliveryDelay = null;
+    }
+  }
+
+  @Override
+  public void send(Message message) throws JMSException {
+    target.send(message);
+  }
+
+  @Override
+  public void send(Message message, int deliveryMode, int priority, long timeToLive)
+      throws JMSException {
+    target.send(message, deliveryMode, priority, timeToLive);
+  }
+
+  @Override
+  public void send(Destination destination, Message message) throws JMSException {
+    target.send(destination, message);
+  }
+
+  @Override
+  public void send(Destination destination, Message message, int deliveryMode, int priority,
+      long timeToLive) throws JMSException {
+    target.send(destination, message, deliveryMode, priority, timeToLive);
+  }
+
+  @Override
+  public void send(Message message, CompletionListener completionListener) throws JMSException {
+    target.send(message, completionListener);
+  }
+
+  @Override
+  public void send(Message message, int deliveryMode, int priority, long timeToLive,
+      CompletionListener completionListener) throws JMSException {
+    target.send(message, deliveryMode, priority, timeToLive, completionListener);
+  }
+
+  @Override
+  public void send(Destination destination, Message message,
+      CompletionListener completionListener) throws JMSException {
+    target.send(destination, message, completionListener);
+  }
+
+  @Override
+  public void send(Destination destination, Message message, int deliveryMode, int priority,
+      long timeToLive, CompletionListener completionListener) throws JMSException {
+    target.send(destination, message, deliveryMode, priority, timeToLive, completionListener);
+  }
+
+  void closeTarget() {
+    try {
+      target.close();
+    } catch (JMSException ignored) {
+      // session already closed
+    }
+  }
+}
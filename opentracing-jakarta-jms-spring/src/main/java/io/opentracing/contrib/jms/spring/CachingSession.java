@@ -0,0 +1,297 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.spring;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import jakarta.jms.BytesMessage;
+import jakarta.jms.Destination;
+import jakarta.jms.JMSException;
+import jakarta.jms.MapMessage;
+import jakarta.jms.Message;
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.MessageListener;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.ObjectMessage;
+import jakarta.jms.Queue;
+import jakarta.jms.QueueBrowser;
+import jakarta.jms.Session;
+import jakarta.jms.StreamMessage;
+import jakarta.jms.TemporaryQueue;
+import jakarta.jms.TemporaryTopic;
+import jakarta.jms.TextMessage;
+import jakarta.jms.Topic;
+import jakarta.jms.TopicSubscriber;
+
+/**
+ * Session which keeps the producers and non-durable consumers it created open across their
+ * {@code close()} calls, keyed by destination. Each cache holds at most {@code
+ * maxCachedDestinations} entries, the least recently used one is closed when the limit is
+ * exceeded. Temporary destinations are not cached.
+ * Like the session itself, the caches are meant to be used by one thread at a time.
+ */
+class CachingSession implements Session {
+
+  private final Session session;
+  private final Map<Destination, CachedMessageProducer> producers;
+  private final Map<Object, CachedMessageConsumer> consumers;
+
+  CachingSession(Session session, int maxCachedDestinations) {
+    this.session = session;
+    this.producers = new LinkedHashMap<Destination, CachedMessageProducer>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Destination, CachedMessageProducer> eldest) {
+        if (size() <= maxCachedDestinations) {
+          return false;
+        }
+        eldest.getValue().closeTarget();
+        return true;
+      }
+    };
+    this.consumers = new LinkedHashMap<Object, CachedMessageConsumer>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Object, CachedMessageConsumer> eldest) {
+        if (size() <= maxCachedDestinations) {
+          return false;
+        }
+        eldest.getValue().closeTarget();
+        return true;
+      }
+    };
+  }
+
+  @Override
+  public BytesMessage createBytesMessage() throws JMSException {
+    return session.createBytesMessage();
+  }
+
+  @Override
+  public MapMessage createMapMessage() throws JMSException {
+    return session.createMapMessage();
+  }
+
+  @Override
+  public Message createMessage() throws JMSException {
+    return session.createMessage();
+  }
+
+  @Override
+  public ObjectMessage createObjectMessage() throws JMSException {
+    return session.createObjectMessage();
+  }
+
+  @Override
+  public ObjectMessage createObjectMessage(Serializable object) throws JMSException {
+    return session.createObjectMessage(object);
+  }
+
+  @Override
+  public StreamMessage createStreamMessage() throws JMSException {
+    return session.createStreamMessage();
+  }
+
+  @Override
+  public TextMessage createTextMessage() throws JMSException {
+    return session.createTextMessage();
+  }
+
+  @Override
+  public TextMessage createTextMessage(String text) throws JMSException {
+    return session.createTextMessage(text);
+  }
+
+  @Override
+  public boolean getTransacted() throws JMSException {
+    return session.getTransacted();
+  }
+
+  @Override
+  public int getAcknowledgeMode() throws JMSException {
+    return session.getAcknowledgeMode();
+  }
+
+  @Override
+  public void commit() throws JMSException {
+    session.commit();
+  }
+
+  @Override
+  public void rollback() throws JMSException {
+    session.rollback();
+  }
+
+  @Override
+  public void close() throws JMSException {
+    for (CachedMessageProducer producer : producers.values()) {
+      producer.closeTarget();
+    }
+    producers.clear();
+    for (CachedMessageConsumer consumer : consumers.values()) {
+      consumer.closeTarget();
+    }
+    consumers.clear();
+    session.close();
+  }
+
+
+  @Override
+  public void recover() throws JMSException {
+    session.recover();
+  }
+
+  @Override
+  public MessageListener getMessageListener() throws JMSException {
+    return session.getMessageListener();
+  }
+
+  @Override
+  public void setMessageListener(MessageListener listener) throws JMSException {
+    session.setMessageListener(listener);
+  }
+
+  @Override
+  public void run() {
+    session.run();
+  }
+
+  @Override
+  public MessageProducer createProducer(Destination destination) throws JMSException {
+    if (isTemporary(destination)) {
+      return session.createProducer(destination);
+    }
+    CachedMessageProducer producer = producers.get(destination);
+    if (producer == null) {
+      producer = new CachedMessageProducer(session.createProducer(destination));
+      producers.put(destination, producer);
+    }
+    return producer;
+  }
+
+
+  @Override
+  public MessageConsumer createConsumer(Destination destination) throws JMSException {
+    return createConsumer(destination, null, false);
+  }
+
+
+  @Override
+  public MessageConsumer createConsumer(Destination destination, String messageSelector)
+      throws JMSException {
+    return createConsumer(destination, messageSelector, false);
+  }
+
+
+  @Override
+  public MessageConsumer createConsumer(Destination destination, String messageSelector,
+      boolean noLocal) throws JMSException {
+    if (isTemporary(destination)) {
+      return session.createConsumer(destination, messageSelector, noLocal);
+    }
+    Object key = Arrays.asList(destination, messageSelector, noLocal);
+    CachedMessageConsumer consumer = consumers.get(key);
+    if (consumer == null) {
+      consumer = new CachedMessageConsumer(
+          session.createConsumer(destination, messageSelector, noLocal));
+      consumers.put(key, consumer);
+    }
+    return consumer;
+  }
+
+
+  @Override
+  public MessageConsumer createSharedConsumer(Topic topic, String sharedSubscriptionName)
+      throws JMSException {
+    return session.createSharedConsumer(topic, sharedSubscriptionName);
+  }
+
+  @Override
+  public MessageConsumer createSharedConsumer(Topic topic, String sharedSubscriptionName,
+      String messageSelector) throws JMSException {
+    return session.createSharedConsumer(topic, sharedSubscriptionName, messageSelector);
+  }
+
+  @Override
+  public Queue createQueue(String queueName) throws JMSException {
+    return session.createQueue(queueName);
+  }
+
+  @Override
+  public Topic createTopic(String topicName) throws JMSException {
+    return session.createTopic(topicName);
+  }
+
+  @Override
+  public TopicSubscriber createDurableSubscriber(Topic topic, String name) throws JMSException {
+    return session.createDurableSubscriber(topic, name);
+  }
+
+  @Override
+  public TopicSubscriber createDurableSubscriber(Topic topic, String name, String messageSelector,
+      boolean noLocal) throws JMSException {
+    return session.createDurableSubscriber(topic, name, messageSelector, noLocal);
+  }
+
+  @Override
+  public MessageConsumer createDurableConsumer(Topic topic, String name) throws JMSException {
+    return session.createDurableConsumer(topic, name);
+  }
+
+  @Override
+  public MessageConsumer createDurableConsumer(Topic topic, String name, String messageSelector,
+      boolean noLocal) throws JMSException {
+    return session.createDurableConsumer(topic, name, messageSelector, noLocal);
+  }
+
+  @Override
+  public MessageConsumer createSharedDurableConsumer(Topic topic, String name) throws JMSException {
+    return session.createSharedDurableConsumer(topic, name);
+  }
+
+  @Override
+  public MessageConsumer createSharedDurableConsumer(Topic topic, String name,
+      String messageSelector) throws JMSException {
+    return session.createSharedDurableConsumer(topic, name, messageSelector);
+  }
+
+  @Override
+  public QueueBrowser createBrowser(Queue queue) throws JMSException {
+    return session.createBrowser(queue);
+  }
+
+  @Override
+  public QueueBrowser createBrowser(Queue queue, String messageSelector) throws JMSException {
+    return session.createBrowser(queue, messageSelector);
+  }
+
+  @Override
+  public TemporaryQueue createTemporaryQueue() throws JMSException {
+    return session.createTemporaryQueue();
+  }
+
+  @Override
+  public TemporaryTopic createTemporaryTopic() throws JMSException {
+    return session.createTemporaryTopic();
+  }
+
+  @Override
+  public void unsubscribe(String name) throws JMSException {
+    session.unsubscribe(name);
+  }
+
+  private static boolean isTemporary(Destination destination) {
+    return destination instanceof TemporaryQueue || destination instanceof TemporaryTopic;
+  }
+}
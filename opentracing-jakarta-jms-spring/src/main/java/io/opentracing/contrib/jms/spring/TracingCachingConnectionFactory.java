@@ -0,0 +1,117 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.spring;
+
+import io.opentracing.Tracer;
+import io.opentracing.contrib.jakarta.jms.TracingConnection;
+import io.opentracing.contrib.jakarta.jms.TracingConnectionFactory;
+import io.opentracing.contrib.jakarta.jms.TracingOptions;
+import io.opentracing.contrib.jakarta.jms.TracingSession;
+import jakarta.jms.Connection;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.JMSException;
+import jakarta.jms.Session;
+import org.springframework.jms.connection.CachingConnectionFactory;
+
+/**
+ * {@link CachingConnectionFactory} which shares one {@link TracingConnection} and caches its
+ * traced sessions across {@link TracingJmsTemplate} operations. Sessions are pooled up to {@link
+ * #setSessionCacheSize(int)}, surplus sessions are closed. Each session keeps the producers and
+ * consumers it created open for up to {@code maxCachedDestinations} destinations, evicting the
+ * least recently used, and wraps them in fresh lightweight tracing decorators per operation.
+ * <p>
+ * If the target is a {@link TracingConnectionFactory} already, its connections are used as is and
+ * producers and consumers are cached by {@link CachingConnectionFactory} instead.
+ */
+public class TracingCachingConnectionFactory extends CachingConnectionFactory {
+
+  public static final int DEFAULT_MAX_CACHED_DESTINATIONS = 64;
+
+  private final Tracer tracer;
+  private final TracingOptions options;
+  private final int maxCachedDestinations;
+
+  public TracingCachingConnectionFactory(ConnectionFactory targetConnectionFactory,
+      Tracer tracer) {
+    this(targetConnectionFactory, tracer, TracingOptions.DEFAULT,
+        DEFAULT_MAX_CACHED_DESTINATIONS);
+  }
+
+  /**
+   * @param targetConnectionFactory the factory of the shared connection
+   * @param options                 the settings of the tracing connection and its sessions
+   * @param maxCachedDestinations   the maximum number of producers and of consumers cached per
+   *                                session
+   */
+  public TracingCachingConnectionFactory(ConnectionFactory targetConnectionFactory,
+      Tracer tracer, TracingOptions options, int maxCachedDestinations) {
+    super(targetConnectionFactory);
+    if (maxCachedDestinations <= 0) {
+      throw new IllegalArgumentException(
+          "maxCachedDestinations must be positive: " + maxCachedDestinations);
+    }
+    this.tracer = tracer;
+    this.options = options;
+    this.maxCachedDestinations = maxCachedDestinations;
+    boolean traced = targetConnectionFactory instanceof TracingConnectionFactory;
+    setCacheProducers(traced);
+    setCacheConsumers(traced);
+  }
+
+  @Override
+  protected Connection doCreateConnection() throws JMSException {
+    Connection connection = super.doCreateConnection();
+    if (connection instanceof TracingConnection) {
+      return connection;
+    }
+    return new CachingTracingConnection(connection, tracer, options, maxCachedDestinations);
+  }
+
+  private static final class CachingTracingConnection extends TracingConnection {
+
+    private final Connection connection;
+    private final Tracer tracer;
+    private final TracingOptions options;
+    private final int maxCachedDestinations;
+
+    CachingTracingConnection(Connection connection, Tracer tracer, TracingOptions options,
+        int maxCachedDestinations) {
+      super(connection, tracer, options);
+      this.connection = connection;
+      this.tracer = tracer;
+      this.options = options;
+      this.maxCachedDestinations = maxCachedDestinations;
+    }
+
+    @Override
+    public Session createSession(boolean transacted, int acknowledgeMode) throws JMSException {
+      return traced(connection.createSession(transacted, acknowledgeMode));
+    }
+
+    @Override
+    public Session createSession(int sessionMode) throws JMSException {
+      return traced(connection.createSession(sessionMode));
+    }
+
+    @Override
+    public Session createSession() throws JMSException {
+      return traced(connection.createSession());
+    }
+
+    private Session traced(Session session) {
+      return new TracingSession(new CachingSession(session, maxCachedDestinations), tracer,
+          options);
+    }
+  }
+}
@@ -16,9 +16,11 @@ package io.opentracing.contrib.jms.spring;
 
 import io.opentracing.Tracer;
 import io.opentracing.contrib.jakarta.jms.TracingConnection;
+import io.opentracing.contrib.jakarta.jms.TracingConnectionFactory;
 import jakarta.jms.Connection;
 import jakarta.jms.ConnectionFactory;
 import jakarta.jms.JMSException;
+import org.springframework.jms.connection.SingleConnectionFactory;
 import org.springframework.jms.core.JmsTemplate;
 
 // Decorator for Spring JmsTemplate
@@ -46,6 +48,25 @@ public class TracingJmsTemplate extends JmsTemplate {
 
   @Override
   protected Connection createConnection() throws JMSException {
-    return new TracingConnection(super.createConnection(), tracer, traceInLog);
+    Connection connection = super.createConnection();
+    if (connection instanceof TracingConnection || createsTracedConnections()) {
+      // traced by the connection factory already
+      return connection;
+    }
+    return new TracingConnection(connection, tracer, traceInLog);
+  }
+
+  /**
+   * Connections of a {@link SingleConnectionFactory}, such as a {@code CachingConnectionFactory},
+   * are proxies, so the target factories are checked instead.
+   */
+  private boolean createsTracedConnections() {
+    ConnectionFactory factory = getConnectionFactory();
+    while (!(factory instanceof TracingCachingConnectionFactory)
+        && factory instanceof SingleConnectionFactory) {
+      factory = ((SingleConnectionFactory) factory).getTargetConnectionFactory();
+    }
+    return factory instanceof TracingConnectionFactory
+        || factory instanceof TracingCachingConnectionFactory;
   }
 }
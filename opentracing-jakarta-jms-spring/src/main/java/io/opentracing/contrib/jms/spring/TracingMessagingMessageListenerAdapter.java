@@ -13,14 +13,15 @@
  */
 package io.opentracing.contrib.jms.spring;
 
+import io.opentracing.Scope;
 import io.opentracing.Span;
 import io.opentracing.Tracer;
-import io.opentracing.contrib.jms.common.TracingMessageListener;
+import io.opentracing.contrib.jms.common.JmsMetrics;
 import io.opentracing.contrib.jms.common.TracingMessageUtils;
+import io.opentracing.noop.NoopSpan;
 import jakarta.jms.Destination;
 import jakarta.jms.JMSException;
 import jakarta.jms.Message;
-import jakarta.jms.MessageListener;
 import jakarta.jms.Session;
 import org.springframework.jms.listener.adapter.MessagingMessageListenerAdapter;
 
@@ -38,22 +39,34 @@ public class TracingMessagingMessageListenerAdapter extends MessagingMessageList
     this.traceInLog = traceInLog;
   }
 
+  /**
+   * Handles the message in an active listener span, activated like by {@link
+   * io.opentracing.contrib.jms.common.TracingMessageListener}, without allocating a decorator per
+   * message.
+   */
   @Override
-  public void onMessage(final Message jmsMessage, final Session session) throws JMSException {
-    TracingMessageListener listener = new TracingMessageListener(new MessageListener() {
-      @Override
-      public void onMessage(Message message) {
-        onMessageInternal(message, session);
-      }
-    }, tracer, traceInLog);
-    listener.onMessage(jmsMessage);
+  public void onMessage(Message jmsMessage, Session session) throws JMSException {
+    JmsMetrics.recordListenerInvocation(null, jmsMessage);
+    Span span = TracingMessageUtils.startListenerSpan(jmsMessage, tracer);
+    if (span instanceof NoopSpan) {
+      invoke(jmsMessage, session);
+      return;
+    }
+    Scope scope = TracingMessageUtils.activateListenerSpan(span, tracer, traceInLog);
+    try {
+      invoke(jmsMessage, session);
+    } finally {
+      TracingMessageUtils.closeListenerScope(scope, traceInLog);
+      span.finish();
+    }
   }
 
-  private void onMessageInternal(Message jmsMessage, Session session) {
+  private void invoke(Message jmsMessage, Session session) throws JMSException {
     try {
       super.onMessage(jmsMessage, session);
-    } catch (JMSException e) {
-      throw new IllegalStateException(e);
+    } catch (JMSException | RuntimeException | Error e) {
+      JmsMetrics.recordError(TracingMessageUtils.destinationOf(jmsMessage));
+      throw e;
     }
   }
 
@@ -49,6 +49,7 @@ public class TestConfiguration {
     org.apache.activemq.artemis.core.config.Configuration config = new ConfigurationImpl();
     config.addAcceptorConfiguration("in-vm", "vm://localhost");
     config.setSecurityEnabled(false);
+    config.setPersistenceEnabled(false);
     EmbeddedActiveMQ embeddedActiveMQ = new EmbeddedActiveMQ();
     embeddedActiveMQ.setConfiguration(config);
     embeddedActiveMQ.start();
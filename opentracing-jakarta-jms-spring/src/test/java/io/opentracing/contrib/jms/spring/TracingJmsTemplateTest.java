@@ -18,8 +18,14 @@ import static org.hamcrest.core.IsEqual.equalTo;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import io.opentracing.contrib.jakarta.jms.TracingConnectionFactory;
 import io.opentracing.contrib.jms.common.TracingMessageUtils;
 import io.opentracing.mock.MockSpan;
 import io.opentracing.mock.MockTracer;
@@ -27,14 +33,19 @@ import io.opentracing.tag.Tags;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
+import jakarta.jms.ConnectionFactory;
 import jakarta.jms.JMSException;
 import jakarta.jms.Message;
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Queue;
 import jakarta.jms.Session;
 import jakarta.jms.TextMessage;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jms.connection.CachingConnectionFactory;
 import org.springframework.jms.core.JmsTemplate;
 import org.springframework.jms.core.MessageCreator;
 import org.springframework.jms.support.converter.MappingJackson2MessageConverter;
@@ -51,6 +62,9 @@ public class TracingJmsTemplateTest {
   @Autowired
   private MockTracer mockTracer;
 
+  @Autowired
+  private ConnectionFactory connectionFactory;
+
   @Before
   public void before() {
     mockTracer.reset();
@@ -132,6 +146,97 @@ public class TracingJmsTemplateTest {
     assertNull(mockTracer.activeSpan());
   }
 
+  @Test
+  public void cachingConnectionFactory() throws Exception {
+    String destination = "TEST.CACHED";
+    TracingCachingConnectionFactory cachingConnectionFactory =
+        new TracingCachingConnectionFactory(connectionFactory, mockTracer);
+    TracingJmsTemplate template = new TracingJmsTemplate(cachingConnectionFactory, mockTracer,
+        false);
+    template.setReceiveTimeout(5000);
+    try {
+      for (int i = 0; i < 3; i++) {
+        template.send(destination, new MessageCreator() {
+          @Override
+          public Message createMessage(Session session) throws JMSException {
+            return session.createTextMessage("cached");
+          }
+        });
+      }
+      for (int i = 0; i < 3; i++) {
+        assertEquals("cached", ((TextMessage) template.receive(destination)).getText());
+      }
+    } finally {
+      cachingConnectionFactory.destroy();
+    }
+
+    // one span per operation: the cached connection is not wrapped twice
+    List<MockSpan> mockSpans = mockTracer.finishedSpans();
+    assertEquals(6, mockSpans.size());
+    checkSpans(mockSpans);
+    assertNull(mockTracer.activeSpan());
+  }
+
+  @Test
+  public void cachingSessionReusesAndEvicts() throws Exception {
+    Session session = mock(Session.class);
+    Queue first = mock(Queue.class);
+    Queue second = mock(Queue.class);
+    MessageProducer firstProducer = mock(MessageProducer.class);
+    MessageProducer secondProducer = mock(MessageProducer.class);
+    MessageConsumer firstConsumer = mock(MessageConsumer.class);
+    MessageConsumer secondConsumer = mock(MessageConsumer.class);
+    when(session.createProducer(first)).thenReturn(firstProducer);
+    when(session.createProducer(second)).thenReturn(secondProducer);
+    when(session.createConsumer(first, null, false)).thenReturn(firstConsumer);
+    when(session.createConsumer(second, null, false)).thenReturn(secondConsumer);
+    CachingSession cachingSession = new CachingSession(session, 1);
+
+    MessageProducer producer = cachingSession.createProducer(first);
+    producer.close();
+    assertSame(producer, cachingSession.createProducer(first));
+    MessageConsumer consumer = cachingSession.createConsumer(first);
+    consumer.close();
+    assertSame(consumer, cachingSession.createConsumer(first));
+    verify(session).createProducer(first);
+    verify(session).createConsumer(first, null, false);
+    verify(firstProducer, never()).close();
+    verify(firstConsumer, never()).close();
+
+    // a second destination exceeds the bound and closes the least recently used entries
+    cachingSession.createProducer(second);
+    cachingSession.createConsumer(second);
+    verify(firstProducer).close();
+    verify(firstConsumer).close();
+    verify(secondProducer, never()).close();
+    verify(secondConsumer, never()).close();
+
+    cachingSession.close();
+    verify(secondProducer).close();
+    verify(secondConsumer).close();
+    verify(session).close();
+  }
+
+  @Test
+  public void cachedTracingConnectionFactory() throws Exception {
+    String destination = "TEST.CACHED.TRACING";
+    CachingConnectionFactory cachingConnectionFactory =
+        new CachingConnectionFactory(new TracingConnectionFactory(connectionFactory, mockTracer));
+    TracingJmsTemplate template = new TracingJmsTemplate(cachingConnectionFactory, mockTracer,
+        false);
+    template.setReceiveTimeout(5000);
+    try {
+      template.convertAndSend(destination, "cached");
+      assertEquals("cached", template.receiveAndConvert(destination));
+    } finally {
+      cachingConnectionFactory.destroy();
+    }
+
+    // the shared connection proxy targets a traced connection, it is not wrapped again
+    List<MockSpan> mockSpans = mockTracer.finishedSpans();
+    assertEquals(2, mockSpans.size());
+    checkSpans(mockSpans);
+  }
 
   private void checkSpans(List<MockSpan> mockSpans) {
     for (MockSpan mockSpan : mockSpans) {
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jakarta.jms;
+
+import io.opentracing.Span;
+import io.opentracing.contrib.jms.common.DestinationMetadata;
+import io.opentracing.contrib.jms.common.JmsMetrics;
+import io.opentracing.contrib.jms.common.SpanJmsDecorator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import jakarta.jms.CompletionListener;
+import jakarta.jms.Message;
+
+/**
+ * Listener for a batch of messages sent asynchronously under one span. The span is finished when
+ * all messages of the batch are complete or sending one of them fails.
+ */
+final class TracingBatchCompletionListener implements CompletionListener {
+
+  private final Span span;
+  private final CompletionListener completionListener;
+  private final DestinationMetadata destination;
+  private final AtomicInteger pending;
+  private final AtomicBoolean finished = new AtomicBoolean();
+
+  TracingBatchCompletionListener(Span span, CompletionListener completionListener,
+      DestinationMetadata destination, int size) {
+    this.span = span;
+    this.completionListener = completionListener;
+    this.destination = destination;
+    this.pending = new AtomicInteger(size);
+  }
+
+  @Override
+  public void onCompletion(Message message) {
+    try {
+      completionListener.onCompletion(message);
+    } finally {
+      complete();
+    }
+  }
+
+  @Override
+  public void onException(Message message, Exception exception) {
+    try {
+      completionListener.onException(message, exception);
+    } finally {
+      SpanJmsDecorator.onError(exception, span);
+      JmsMetrics.recordError(destination);
+      complete();
+    }
+  }
+
+  /**
+   * Finish the span after a send call failed, acknowledgements still pending are ignored.
+   *
+   * @param e the failure of the send call
+   */
+  void onSendFailure(Throwable e) {
+    SpanJmsDecorator.onError(e, span);
+    JmsMetrics.recordError(destination);
+    finish();
+  }
+
+  private void complete() {
+    if (pending.decrementAndGet() == 0) {
+      finish();
+    }
+  }
+
+  private void finish() {
+    if (finished.compareAndSet(false, true)) {
+      span.finish();
+    }
+  }
+}
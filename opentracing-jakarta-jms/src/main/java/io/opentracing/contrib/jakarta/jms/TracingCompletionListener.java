@@ -15,6 +15,8 @@ package io.opentracing.contrib.jakarta.jms;
 
 
 import io.opentracing.Span;
+import io.opentracing.contrib.jms.common.DestinationMetadata;
+import io.opentracing.contrib.jms.common.JmsMetrics;
 import io.opentracing.contrib.jms.common.SpanJmsDecorator;
 import jakarta.jms.CompletionListener;
 import jakarta.jms.Message;
@@ -29,15 +31,37 @@ public class TracingCompletionListener implements CompletionListener {
 
   private final Span span;
   private final CompletionListener completionListener;
+  private final DestinationMetadata destination;
+  private final boolean recordLatency;
+  private final long sendNanos;
 
   public TracingCompletionListener(Span span, CompletionListener completionListener) {
+    this(span, completionListener, null);
+  }
+
+  /**
+   * If {@link JmsMetrics} are enabled, the time from creating the listener right before the send
+   * until the acknowledgement is recorded in {@link JmsMetrics#ackLatency()}.
+   *
+   * @param span               the send span
+   * @param completionListener the listener to notify
+   * @param destination        the destination of the send
+   */
+  public TracingCompletionListener(Span span, CompletionListener completionListener,
+      DestinationMetadata destination) {
     this.span = span;
     this.completionListener = completionListener;
+    this.destination = destination;
+    this.recordLatency = JmsMetrics.isEnabled();
+    this.sendNanos = recordLatency ? System.nanoTime() : 0;
   }
 
 
   @Override
   public void onCompletion(Message message) {
+    if (recordLatency) {
+      JmsMetrics.ackLatency().record(destination, System.nanoTime() - sendNanos);
+    }
     try {
       completionListener.onCompletion(message);
     } finally {
@@ -51,6 +75,7 @@ public class TracingCompletionListener implements CompletionListener {
       completionListener.onException(message, exception);
     } finally {
       SpanJmsDecorator.onError(exception, span);
+      JmsMetrics.recordError(destination);
       span.finish();
     }
   }
@@ -27,32 +27,39 @@ import jakarta.jms.Topic;
 public class TracingConnection implements Connection {
   private final Connection connection;
   private final Tracer tracer;
-  private final boolean traceInLog;
+  private final TracingOptions options;
 
   public TracingConnection(Connection connection, Tracer tracer) {
-    this(connection, tracer, false);
+    this(connection, tracer, TracingOptions.DEFAULT);
   }
 
   public TracingConnection(Connection connection, Tracer tracer, boolean traceInLog) {
+    this(connection, tracer, TracingOptions.builder().traceInLog(traceInLog).build());
+  }
+
+  /**
+   * @param options the settings of the created sessions
+   */
+  public TracingConnection(Connection connection, Tracer tracer, TracingOptions options) {
     this.connection = connection;
     this.tracer = tracer;
-    this.traceInLog = traceInLog;
+    this.options = options != null ? options : TracingOptions.DEFAULT;
   }
 
   @Override
   public Session createSession(boolean transacted, int acknowledgeMode) throws JMSException {
     return new TracingSession(connection.createSession(transacted, acknowledgeMode), tracer,
-        traceInLog);
+        options);
   }
 
   @Override
   public Session createSession(int sessionMode) throws JMSException {
-    return new TracingSession(connection.createSession(sessionMode), tracer, traceInLog);
+    return new TracingSession(connection.createSession(sessionMode), tracer, options);
   }
 
   @Override
   public Session createSession() throws JMSException {
-    return new TracingSession(connection.createSession(), tracer, traceInLog);
+    return new TracingSession(connection.createSession(), tracer, options);
   }
 
   @Override
@@ -98,22 +105,22 @@ public class TracingConnection implements Connection {
   @Override
   public ConnectionConsumer createConnectionConsumer(Destination destination,
       String messageSelector, ServerSessionPool sessionPool, int maxMessages) throws JMSException {
-    return connection.createConnectionConsumer(destination, messageSelector, sessionPool,
-        maxMessages);
+    return connection.createConnectionConsumer(destination, messageSelector,
+        traced(destination, sessionPool), maxMessages);
   }
 
   @Override
   public ConnectionConsumer createSharedConnectionConsumer(Topic topic, String subscriptionName,
       String messageSelector, ServerSessionPool sessionPool, int maxMessages) throws JMSException {
     return connection.createSharedConnectionConsumer(topic, subscriptionName, messageSelector,
-        sessionPool, maxMessages);
+        traced(topic, sessionPool), maxMessages);
   }
 
   @Override
   public ConnectionConsumer createDurableConnectionConsumer(Topic topic, String subscriptionName,
       String messageSelector, ServerSessionPool sessionPool, int maxMessages) throws JMSException {
     return connection.createDurableConnectionConsumer(topic, subscriptionName, messageSelector,
-        sessionPool, maxMessages);
+        traced(topic, sessionPool), maxMessages);
   }
 
   @Override
@@ -121,7 +128,15 @@ public class TracingConnection implements Connection {
       String subscriptionName, String messageSelector, ServerSessionPool sessionPool,
       int maxMessages) throws JMSException {
     return connection.createSharedDurableConnectionConsumer(topic, subscriptionName,
-        messageSelector, sessionPool, maxMessages);
+        messageSelector, traced(topic, sessionPool), maxMessages);
+  }
+
+  private ServerSessionPool traced(Destination destination, ServerSessionPool sessionPool) {
+    if (sessionPool == null || sessionPool instanceof TracingServerSessionPool
+        || !options.getDestinationFilter().isTraced(destination)) {
+      return sessionPool;
+    }
+    return new TracingServerSessionPool(sessionPool, tracer, options.isTraceInLog());
   }
 
 }
@@ -27,39 +27,54 @@ public class TracingConnectionFactory implements ConnectionFactory {
 
   private final ConnectionFactory connectionFactory;
   private final Tracer tracer;
+  private final TracingOptions options;
 
   public TracingConnectionFactory(ConnectionFactory connectionFactory, Tracer tracer) {
+    this(connectionFactory, tracer, TracingOptions.DEFAULT);
+  }
+
+  /**
+   * @param connectionFactory the connection factory to decorate
+   * @param tracer the tracer
+   * @param options the settings of the created connections and contexts
+   */
+  public TracingConnectionFactory(ConnectionFactory connectionFactory, Tracer tracer,
+      TracingOptions options) {
     this.connectionFactory = connectionFactory;
     this.tracer = tracer;
+    this.options = options != null ? options : TracingOptions.DEFAULT;
   }
 
   @Override
   public Connection createConnection() throws JMSException {
-    return new TracingConnection(connectionFactory.createConnection(), tracer);
+    return new TracingConnection(connectionFactory.createConnection(), tracer, options);
   }
 
   @Override
   public Connection createConnection(String userName, String password) throws JMSException {
-    return new TracingConnection(connectionFactory.createConnection(userName, password), tracer);
+    return new TracingConnection(connectionFactory.createConnection(userName, password), tracer,
+        options);
   }
 
   @Override
   public JMSContext createContext() {
-    return new TracingJMSContext(connectionFactory.createContext(), tracer);
+    return new TracingJMSContext(connectionFactory.createContext(), tracer, options);
   }
 
   @Override
   public JMSContext createContext(String userName, String password) {
-    return new TracingJMSContext(connectionFactory.createContext(userName, password), tracer);
+    return new TracingJMSContext(connectionFactory.createContext(userName, password), tracer,
+        options);
   }
 
   @Override
   public JMSContext createContext(String userName, String password, int sessionMode) {
-    return new TracingJMSContext(connectionFactory.createContext(userName, password, sessionMode), tracer);
+    return new TracingJMSContext(connectionFactory.createContext(userName, password, sessionMode),
+        tracer, options);
   }
 
   @Override
   public JMSContext createContext(int sessionMode) {
-    return new TracingJMSContext(connectionFactory.createContext(sessionMode), tracer);
+    return new TracingJMSContext(connectionFactory.createContext(sessionMode), tracer, options);
   }
 }
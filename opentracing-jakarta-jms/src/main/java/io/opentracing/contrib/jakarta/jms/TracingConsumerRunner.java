@@ -0,0 +1,294 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jakarta.jms;
+
+import io.opentracing.Tracer;
+import io.opentracing.contrib.jms.common.DestinationMetadata;
+import io.opentracing.contrib.jms.common.JmsMetrics;
+import io.opentracing.contrib.jms.common.TracingMessageConsumer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import jakarta.jms.Connection;
+import jakarta.jms.Destination;
+import jakarta.jms.ExceptionListener;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.MessageListener;
+import jakarta.jms.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs {@code consumers} blocking receive loops on a destination, each on its own thread with its
+ * own {@link TracingSession}. Every message is passed to the listener within an activated consumer
+ * span, see {@link TracingMessageConsumer#receive(long, MessageListener)}.
+ *
+ * <p>By default the loops run on virtual threads, so thousands of mostly idle consumers do not
+ * need a platform thread each. Virtual threads need Java 21, or Java 19 and 20 with
+ * {@code --enable-preview}; otherwise daemon platform threads are used.
+ *
+ * <p>Sessions of {@link Session#SESSION_TRANSACTED} mode are committed after every message and
+ * rolled back if the listener throws.
+ *
+ * <p>Exceptions of the listener are logged and passed to the {@code exceptionListener} wrapped in
+ * a {@link JMSException}, the receive loop continues with the next message.
+ */
+public class TracingConsumerRunner implements AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(TracingConsumerRunner.class);
+  private static final long RECEIVE_TIMEOUT_MILLIS = 1000;
+
+  private final Connection connection;
+  private final Tracer tracer;
+  private final Destination destination;
+  private final int consumers;
+  private final int sessionMode;
+  private final MessageListener listener;
+  private final ThreadFactory threadFactory;
+  private final ExceptionListener exceptionListener;
+  private final List<MessageConsumer> openConsumers = new ArrayList<>();
+  private final CountDownLatch stopped;
+  private volatile boolean running;
+  private boolean started;
+
+  public TracingConsumerRunner(Connection connection, Tracer tracer, Destination destination,
+      int consumers, MessageListener listener) {
+    this(connection, tracer, destination, consumers, Session.AUTO_ACKNOWLEDGE, listener,
+        virtualThreads(), null);
+  }
+
+  /**
+   * @param connection        the connection to create the sessions with, sessions of a {@link
+   *                          TracingConnection} are used as is
+   * @param tracer            the tracer of the sessions unless created by a {@link
+   *                          TracingConnection}
+   * @param destination       the destination to consume from
+   * @param consumers         the number of receive loops
+   * @param sessionMode       the session mode as of {@link Connection#createSession(int)}
+   * @param listener          the listener processing the messages
+   * @param threadFactory     the factory of the receive loop threads
+   * @param exceptionListener notified of {@link JMSException}s of the receive loops and of the
+   *                          exceptions of the listener, nullable
+   */
+  public TracingConsumerRunner(Connection connection, Tracer tracer, Destination destination,
+      int consumers, int sessionMode, MessageListener listener, ThreadFactory threadFactory,
+      ExceptionListener exceptionListener) {
+    if (consumers <= 0) {
+      throw new IllegalArgumentException("consumers must be positive: " + consumers);
+    }
+    this.connection = connection;
+    this.tracer = tracer;
+    this.destination = destination;
+    this.consumers = consumers;
+    this.sessionMode = sessionMode;
+    this.listener = listener;
+    this.threadFactory = threadFactory;
+    this.exceptionListener = exceptionListener;
+    this.stopped = new CountDownLatch(consumers);
+  }
+
+  /**
+   * The virtual thread API is resolved reflectively, it is a preview API of the Java 19 baseline.
+   *
+   * @return a factory of virtual threads named {@code jms-consumer-<n>}, or of daemon platform
+   * threads if the runtime has no virtual threads
+   */
+  public static ThreadFactory virtualThreads() {
+    try {
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      builder = builderClass.getMethod("name", String.class, long.class)
+          .invoke(builder, "jms-consumer-", 0L);
+      return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      AtomicLong counter = new AtomicLong();
+      return runnable -> {
+        Thread thread = new Thread(runnable, "jms-consumer-" + counter.getAndIncrement());
+        thread.setDaemon(true);
+        return thread;
+      };
+    }
+  }
+
+  /**
+   * Create the sessions and consumers and start the receive loops. The connection has to be
+   * started to receive messages.
+   *
+   * @throws JMSException if a session or consumer cannot be created, the already created ones are
+   *                      closed
+   */
+  public synchronized void start() throws JMSException {
+    if (started) {
+      throw new IllegalStateException("already started");
+    }
+    started = true;
+    running = true;
+    List<Session> sessions = new ArrayList<>(consumers);
+    try {
+      for (int i = 0; i < consumers; i++) {
+        Session session = tracingSession(connection.createSession(sessionMode));
+        sessions.add(session);
+        openConsumers.add(session.createConsumer(destination));
+      }
+    } catch (JMSException | RuntimeException e) {
+      running = false;
+      for (Session session : sessions) {
+        closeQuietly(session);
+      }
+      throw e;
+    }
+    for (int i = 0; i < consumers; i++) {
+      Session session = sessions.get(i);
+      MessageConsumer consumer = openConsumers.get(i);
+      threadFactory.newThread(() -> receiveLoop(session, consumer)).start();
+    }
+  }
+
+  /**
+   * @return {@code true} until {@link #stop(long, TimeUnit)} is called
+   */
+  public boolean isRunning() {
+    return running;
+  }
+
+  /**
+   * Stop receiving and wait for the messages in progress to be processed. The sessions are closed
+   * by their receive loops.
+   *
+   * @param timeout the maximum time to wait
+   * @param unit    the unit of the {@code timeout}
+   * @return {@code true} if all receive loops finished within the timeout
+   */
+  public boolean stop(long timeout, TimeUnit unit) throws InterruptedException {
+    synchronized (this) {
+      if (!started) {
+        return true;
+      }
+      running = false;
+      for (MessageConsumer consumer : openConsumers) {
+        // unblocks a pending receive, waits for a receive in progress to complete
+        closeQuietly(consumer);
+      }
+    }
+    return stopped.await(timeout, unit);
+  }
+
+  @Override
+  public void close() throws InterruptedException {
+    stop(RECEIVE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  private Session tracingSession(Session session) {
+    if (session instanceof TracingSession) {
+      return session;
+    }
+    return new TracingSession(session, tracer);
+  }
+
+  private void receiveLoop(Session session, MessageConsumer consumer) {
+    MessageListener tracingListener = consumer instanceof TracingMessageConsumer
+        ? ((TracingMessageConsumer) consumer).tracingListener(listener) : listener;
+    try {
+      while (running && receive(session, consumer, tracingListener)) {
+        // until stopped or interrupted
+      }
+    } finally {
+      closeQuietly(session);
+      stopped.countDown();
+    }
+  }
+
+  /**
+   * @return {@code false} if the thread was interrupted while backing off after an error
+   */
+  private boolean receive(Session session, MessageConsumer consumer, MessageListener listener) {
+    boolean transacted = sessionMode == Session.SESSION_TRANSACTED;
+    try {
+      boolean received;
+      if (consumer instanceof TracingMessageConsumer) {
+        received = ((TracingMessageConsumer) consumer).receive(RECEIVE_TIMEOUT_MILLIS, listener);
+      } else {
+        Message message = consumer.receive(RECEIVE_TIMEOUT_MILLIS);
+        received = message != null;
+        if (received) {
+          listener.onMessage(message);
+        }
+      }
+      if (received && transacted) {
+        session.commit();
+      }
+    } catch (RuntimeException e) {
+      // the span and metrics are recorded by the tracing listener
+      log.warn("Message listener failed", e);
+      if (exceptionListener != null) {
+        JMSException jmsException = new JMSException("Message listener failed: " + e);
+        jmsException.setLinkedException(e);
+        jmsException.initCause(e);
+        exceptionListener.onException(jmsException);
+      }
+      if (transacted) {
+        rollbackQuietly(session);
+      }
+    } catch (JMSException e) {
+      if (!running) {
+        // consumer closed by stop
+        return false;
+      }
+      JmsMetrics.recordError(DestinationMetadata.of(destination));
+      if (exceptionListener != null) {
+        exceptionListener.onException(e);
+      }
+      if (transacted) {
+        rollbackQuietly(session);
+      }
+      try {
+        // do not spin on a broken connection
+        TimeUnit.MILLISECONDS.sleep(RECEIVE_TIMEOUT_MILLIS);
+      } catch (InterruptedException ie) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void rollbackQuietly(Session session) {
+    try {
+      session.rollback();
+    } catch (JMSException ignored) {
+      // session closed by stop
+    }
+  }
+
+  private static void closeQuietly(Session session) {
+    try {
+      session.close();
+    } catch (JMSException ignored) {
+      // already closed
+    }
+  }
+
+  private static void closeQuietly(MessageConsumer consumer) {
+    try {
+      consumer.close();
+    } catch (JMSException ignored) {
+      // already closed
+    }
+  }
+}
@@ -14,8 +14,12 @@
 package io.opentracing.contrib.jakarta.jms;
 
 import io.opentracing.Tracer;
+import io.opentracing.contrib.jms.common.DestinationMetadata;
+import io.opentracing.contrib.jms.common.JmsMetrics;
 import io.opentracing.contrib.jms.common.TracingMessageListener;
+import io.opentracing.contrib.jms.common.TracingMessageUtils;
 
+import jakarta.jms.Destination;
 import jakarta.jms.JMSConsumer;
 import jakarta.jms.JMSRuntimeException;
 import jakarta.jms.Message;
@@ -28,10 +32,19 @@ public class TracingJMSConsumer implements JMSConsumer {
 
   private final JMSConsumer jmsConsumer;
   private final Tracer tracer;
+  private final DestinationMetadata destination;
 
   public TracingJMSConsumer(JMSConsumer jmsConsumer, Tracer tracer) {
+    this(jmsConsumer, tracer, null);
+  }
+
+  /**
+   * @param destination the destination the consumer was created for, used for {@link JmsMetrics}
+   */
+  public TracingJMSConsumer(JMSConsumer jmsConsumer, Tracer tracer, Destination destination) {
     this.jmsConsumer = jmsConsumer;
     this.tracer = tracer;
+    this.destination = DestinationMetadata.of(destination);
   }
 
   @Override
@@ -46,22 +59,42 @@ public class TracingJMSConsumer implements JMSConsumer {
 
   @Override
   public void setMessageListener(MessageListener listener) throws JMSRuntimeException {
-    jmsConsumer.setMessageListener(new TracingMessageListener(listener, tracer));
+    if (listener instanceof TracingMessageListener) {
+      jmsConsumer.setMessageListener(listener);
+    } else {
+      jmsConsumer.setMessageListener(new TracingMessageListener(listener, tracer, false,
+          destination));
+    }
   }
 
   @Override
   public Message receive() {
-    return jmsConsumer.receive();
+    Message message = jmsConsumer.receive();
+    recordReceive(message);
+    return message;
   }
 
   @Override
   public Message receive(long timeout) {
-    return jmsConsumer.receive(timeout);
+    Message message = jmsConsumer.receive(timeout);
+    recordReceive(message);
+    return message;
   }
 
   @Override
   public Message receiveNoWait() {
-    return jmsConsumer.receiveNoWait();
+    Message message = jmsConsumer.receiveNoWait();
+    recordReceive(message);
+    return message;
+  }
+
+  private void recordReceive(Message message) {
+    JmsMetrics.recordReceive(destination, message);
+    if (message != null && JmsMetrics.isEnabled()) {
+      DestinationMetadata metadata = destination != null
+          ? destination : TracingMessageUtils.destinationOf(message);
+      JmsMetrics.recordDwellTime(metadata, TracingMessageUtils.dwellTimeMillis(message));
+    }
   }
 
   @Override
@@ -14,6 +14,7 @@
 package io.opentracing.contrib.jakarta.jms;
 
 import io.opentracing.Tracer;
+import io.opentracing.contrib.jms.common.DestinationFilter;
 
 import jakarta.jms.BytesMessage;
 import jakarta.jms.ConnectionMetaData;
@@ -33,6 +34,9 @@ import jakarta.jms.TemporaryTopic;
 import jakarta.jms.TextMessage;
 import jakarta.jms.Topic;
 import java.io.Serializable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ThreadFactory;
 
 /**
  * Tracing decorator for JMS {@code jakarta.jms.JMSContext}.
@@ -41,20 +45,32 @@ public class TracingJMSContext implements JMSContext {
 
   private final JMSContext jmsContext;
   private final Tracer tracer;
+  private final TracingOptions options;
+  private final DestinationFilter destinationFilter;
 
   public TracingJMSContext(JMSContext jmsContext, Tracer tracer) {
+    this(jmsContext, tracer, TracingOptions.DEFAULT);
+  }
+
+  /**
+   * @param options the settings of the created producers, consumers and browsers
+   */
+  public TracingJMSContext(JMSContext jmsContext, Tracer tracer, TracingOptions options) {
     this.jmsContext = jmsContext;
     this.tracer = tracer;
+    this.options = options != null ? options : TracingOptions.DEFAULT;
+    this.destinationFilter = this.options.getDestinationFilter();
   }
 
   @Override
   public JMSContext createContext(int sessionMode) {
-    return new TracingJMSContext(jmsContext.createContext(sessionMode), tracer);
+    return new TracingJMSContext(jmsContext.createContext(sessionMode), tracer, options);
   }
 
   @Override
   public JMSProducer createProducer() {
-    return new TracingJMSProducer(jmsContext.createProducer(), jmsContext, tracer);
+    return new TracingJMSProducer(jmsContext.createProducer(), jmsContext, tracer,
+        destinationFilter);
   }
 
   @Override
@@ -174,17 +190,17 @@ public class TracingJMSContext implements JMSContext {
 
   @Override
   public JMSConsumer createConsumer(Destination destination) {
-    return new TracingJMSConsumer(jmsContext.createConsumer(destination), tracer);
+    return traced(destination, jmsContext.createConsumer(destination));
   }
 
   @Override
   public JMSConsumer createConsumer(Destination destination, String messageSelector) {
-    return new TracingJMSConsumer(jmsContext.createConsumer(destination, messageSelector), tracer);
+    return traced(destination, jmsContext.createConsumer(destination, messageSelector));
   }
 
   @Override
   public JMSConsumer createConsumer(Destination destination, String messageSelector, boolean noLocal) {
-    return new TracingJMSConsumer(jmsContext.createConsumer(destination, messageSelector, noLocal), tracer);
+    return traced(destination, jmsContext.createConsumer(destination, messageSelector, noLocal));
   }
 
   @Override
@@ -199,43 +215,43 @@ public class TracingJMSContext implements JMSContext {
 
   @Override
   public JMSConsumer createDurableConsumer(Topic topic, String name) {
-    return new TracingJMSConsumer(jmsContext.createDurableConsumer(topic, name), tracer);
+    return traced(topic, jmsContext.createDurableConsumer(topic, name));
   }
 
   @Override
   public JMSConsumer createDurableConsumer(Topic topic, String name, String messageSelector, boolean noLocal) {
-    return new TracingJMSConsumer(jmsContext.createDurableConsumer(topic, name, messageSelector, noLocal), tracer);
+    return traced(topic, jmsContext.createDurableConsumer(topic, name, messageSelector, noLocal));
   }
 
   @Override
   public JMSConsumer createSharedDurableConsumer(Topic topic, String name) {
-    return new TracingJMSConsumer(jmsContext.createSharedDurableConsumer(topic, name), tracer);
+    return traced(topic, jmsContext.createSharedDurableConsumer(topic, name));
   }
 
   @Override
   public JMSConsumer createSharedDurableConsumer(Topic topic, String name, String messageSelector) {
-    return new TracingJMSConsumer(jmsContext.createSharedDurableConsumer(topic, name, messageSelector), tracer);
+    return traced(topic, jmsContext.createSharedDurableConsumer(topic, name, messageSelector));
   }
 
   @Override
   public JMSConsumer createSharedConsumer(Topic topic, String sharedSubscriptionName) {
-    return new TracingJMSConsumer(jmsContext.createSharedConsumer(topic, sharedSubscriptionName), tracer);
+    return traced(topic, jmsContext.createSharedConsumer(topic, sharedSubscriptionName));
   }
 
   @Override
   public JMSConsumer createSharedConsumer(Topic topic, String sharedSubscriptionName, String messageSelector) {
-    return new TracingJMSConsumer(jmsContext.createSharedConsumer(topic, sharedSubscriptionName, messageSelector),
-            tracer);
+    return traced(topic,
+            jmsContext.createSharedConsumer(topic, sharedSubscriptionName, messageSelector));
   }
 
   @Override
   public QueueBrowser createBrowser(Queue queue) {
-    return jmsContext.createBrowser(queue);
+    return traced(queue, jmsContext.createBrowser(queue));
   }
 
   @Override
   public QueueBrowser createBrowser(Queue queue, String messageSelector) {
-    return jmsContext.createBrowser(queue, messageSelector);
+    return traced(queue, jmsContext.createBrowser(queue, messageSelector));
   }
 
   @Override
@@ -257,4 +273,56 @@ public class TracingJMSContext implements JMSContext {
   public void acknowledge() {
     jmsContext.acknowledge();
   }
+
+  /**
+   * Publish the messages of the {@code destination} on virtual threads if available, see {@link
+   * #createPublisher(Destination, String, Executor)}.
+   */
+  public Flow.Publisher<Message> createPublisher(Destination destination) {
+    return createPublisher(destination, null);
+  }
+
+  /**
+   * Publish the messages of the {@code destination} on virtual threads if available, see {@link
+   * #createPublisher(Destination, String, Executor)}.
+   */
+  public Flow.Publisher<Message> createPublisher(Destination destination, String messageSelector) {
+    return createPublisher(destination, messageSelector, VirtualThreadExecutor.INSTANCE);
+  }
+
+  /**
+   * Create a publisher of the messages of the {@code destination}. Each subscriber gets its own
+   * context, created with the session mode of this context, and a consumer which only receives
+   * while the subscriber has outstanding demand. Every message is emitted within an activated
+   * consumer span.
+   *
+   * @param destination     the destination to consume from
+   * @param messageSelector the message selector, nullable
+   * @param executor        runs the blocking receive loops, one task per subscriber at a time
+   * @return the publisher
+   */
+  public Flow.Publisher<Message> createPublisher(Destination destination, String messageSelector,
+      Executor executor) {
+    return new TracingMessagePublisher(jmsContext, tracer, destination, messageSelector,
+        destinationFilter.isTraced(destination), executor);
+  }
+
+  private JMSConsumer traced(Destination destination, JMSConsumer consumer) {
+    if (!destinationFilter.isTraced(destination)) {
+      return consumer;
+    }
+    return new TracingJMSConsumer(consumer, tracer, destination);
+  }
+
+  private QueueBrowser traced(Queue queue, QueueBrowser browser) {
+    if (!destinationFilter.isTraced(queue)) {
+      return browser;
+    }
+    return new TracingQueueBrowser(browser, tracer, options.getBrowsePageSize());
+  }
+
+  private static final class VirtualThreadExecutor {
+    private static final ThreadFactory FACTORY = TracingConsumerRunner.virtualThreads();
+    private static final Executor INSTANCE = runnable -> FACTORY.newThread(runnable).start();
+  }
 }
@@ -15,9 +15,13 @@ package io.opentracing.contrib.jakarta.jms;
 
 import io.opentracing.Span;
 import io.opentracing.Tracer;
+import io.opentracing.contrib.jms.common.DestinationFilter;
+import io.opentracing.contrib.jms.common.DestinationMetadata;
+import io.opentracing.contrib.jms.common.JmsMetrics;
 import io.opentracing.contrib.jms.common.SpanJmsDecorator;
 import io.opentracing.contrib.jms.common.TracingMessageUtils;
 import java.io.Serializable;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import jakarta.jms.BytesMessage;
@@ -42,17 +46,31 @@ public class TracingJMSProducer implements JMSProducer {
   private JMSContext jmsContext = null;
   private Session jmsSession = null;
   private final Tracer tracer;
+  private final DestinationFilter destinationFilter;
+  private CompletionListener completionListener;
 
   public TracingJMSProducer(JMSProducer jmsProducer, JMSContext jmsContext, Tracer tracer) {
+    this(jmsProducer, jmsContext, tracer, DestinationFilter.ALL);
+  }
+
+  public TracingJMSProducer(JMSProducer jmsProducer, JMSContext jmsContext, Tracer tracer,
+      DestinationFilter destinationFilter) {
     this.jmsProducer = jmsProducer;
     this.jmsContext = jmsContext;
     this.tracer = tracer;
+    this.destinationFilter = destinationFilter != null ? destinationFilter : DestinationFilter.ALL;
   }
 
   public TracingJMSProducer(JMSProducer jmsProducer, Session jmsSession, Tracer tracer) {
+    this(jmsProducer, jmsSession, tracer, DestinationFilter.ALL);
+  }
+
+  public TracingJMSProducer(JMSProducer jmsProducer, Session jmsSession, Tracer tracer,
+      DestinationFilter destinationFilter) {
     this.jmsProducer = jmsProducer;
     this.jmsSession = jmsSession;
     this.tracer = tracer;
+    this.destinationFilter = destinationFilter != null ? destinationFilter : DestinationFilter.ALL;
   }
 
   @Override
@@ -63,7 +81,7 @@ public class TracingJMSProducer implements JMSProducer {
 
   @Override
   public CompletionListener getAsync() {
-    return jmsProducer.getAsync();
+    return completionListener;
   }
 
   @Override
@@ -173,11 +191,78 @@ public class TracingJMSProducer implements JMSProducer {
 
   @Override
   public JMSProducer send(Destination destination, Message message) {
-    Span span = TracingMessageUtils.startAndInjectSpan(destination, message, tracer);
+    DestinationMetadata metadata = DestinationMetadata.of(destination);
+    JmsMetrics.recordSend(metadata);
+    if (!destinationFilter.isTraced(metadata)) {
+      jmsProducer.send(destination, message);
+      return this;
+    }
+    Span span = TracingMessageUtils.startAndInjectSpan(metadata, message, tracer);
+    if (completionListener != null) {
+      return sendAsync(destination, metadata, message, span);
+    }
     try {
       jmsProducer.send(destination, message);
     } catch (Throwable e) {
       SpanJmsDecorator.onError(e, span);
+      JmsMetrics.recordError(metadata);
+      throw e;
+    } finally {
+      span.finish();
+    }
+    return this;
+  }
+
+  /**
+   * The listener registered by {@link #setAsync(CompletionListener)} applies to all sends, so it is
+   * wrapped for each send to finish the span of that send on the acknowledgement and restored
+   * afterwards.
+   */
+  private JMSProducer sendAsync(Destination destination, DestinationMetadata metadata,
+      Message message, Span span) {
+    jmsProducer.setAsync(new TracingCompletionListener(span, completionListener, metadata));
+    try {
+      jmsProducer.send(destination, message);
+    } catch (Throwable e) {
+      SpanJmsDecorator.onError(e, span);
+      JmsMetrics.recordError(metadata);
+      span.finish();
+      throw e;
+    } finally {
+      jmsProducer.setAsync(completionListener);
+    }
+    return this;
+  }
+
+  /**
+   * Send the {@code messages} to the {@code destination} under one batch span. Every message
+   * carries the context of the batch span. If a listener is registered by {@link
+   * #setAsync(CompletionListener)}, the span is finished when all messages are acknowledged.
+   *
+   * @param destination the destination
+   * @param messages    the messages
+   * @return this producer
+   */
+  public JMSProducer sendBatch(Destination destination, List<? extends Message> messages) {
+    DestinationMetadata metadata = DestinationMetadata.of(destination);
+    JmsMetrics.recordSends(metadata, messages.size());
+    if (!destinationFilter.isTraced(metadata)) {
+      for (Message message : messages) {
+        jmsProducer.send(destination, message);
+      }
+      return this;
+    }
+    Span span = TracingMessageUtils.startAndInjectBatchSpan(metadata, messages, tracer);
+    if (completionListener != null && !messages.isEmpty()) {
+      return sendBatchAsync(destination, metadata, messages, span);
+    }
+    try {
+      for (Message message : messages) {
+        jmsProducer.send(destination, message);
+      }
+    } catch (Throwable e) {
+      SpanJmsDecorator.onError(e, span);
+      JmsMetrics.recordError(metadata);
       throw e;
     } finally {
       span.finish();
@@ -185,8 +270,31 @@ public class TracingJMSProducer implements JMSProducer {
     return this;
   }
 
+  private JMSProducer sendBatchAsync(Destination destination, DestinationMetadata metadata,
+      List<? extends Message> messages, Span span) {
+    TracingBatchCompletionListener listener =
+        new TracingBatchCompletionListener(span, completionListener, metadata, messages.size());
+    jmsProducer.setAsync(listener);
+    try {
+      for (Message message : messages) {
+        jmsProducer.send(destination, message);
+      }
+    } catch (Throwable e) {
+      listener.onSendFailure(e);
+      throw e;
+    } finally {
+      jmsProducer.setAsync(completionListener);
+    }
+    return this;
+  }
+
   @Override
   public JMSProducer send(Destination destination, String message) {
+    if (!destinationFilter.isTraced(destination)) {
+      recordUntracedSend(destination);
+      jmsProducer.send(destination, message);
+      return this;
+    }
     TextMessage textMsg;
     try {
       textMsg = getTextMessage();
@@ -211,6 +319,12 @@ public class TracingJMSProducer implements JMSProducer {
     return send(destination, textMsg);
   }
 
+  private static void recordUntracedSend(Destination destination) {
+    if (JmsMetrics.isEnabled()) {
+      JmsMetrics.recordSend(DestinationMetadata.of(destination));
+    }
+  }
+
   private TextMessage getTextMessage() throws JMSException {
     TextMessage textMsg = null;
     if (jmsContext != null) {
@@ -223,6 +337,11 @@ public class TracingJMSProducer implements JMSProducer {
 
   @Override
   public JMSProducer send(Destination destination, Map<String, Object> arg1) {
+    if (!destinationFilter.isTraced(destination)) {
+      recordUntracedSend(destination);
+      jmsProducer.send(destination, arg1);
+      return this;
+    }
     MapMessage mapMsg;
     try {
       mapMsg = getMapMessage();
@@ -261,6 +380,11 @@ public class TracingJMSProducer implements JMSProducer {
 
   @Override
   public JMSProducer send(Destination destination, byte[] arg1) {
+    if (!destinationFilter.isTraced(destination)) {
+      recordUntracedSend(destination);
+      jmsProducer.send(destination, arg1);
+      return this;
+    }
     BytesMessage bytesMsg;
     try {
       bytesMsg = getBytesMessage();
@@ -300,6 +424,11 @@ public class TracingJMSProducer implements JMSProducer {
 
   @Override
   public JMSProducer send(Destination destination, Serializable obj) {
+    if (!destinationFilter.isTraced(destination)) {
+      recordUntracedSend(destination);
+      jmsProducer.send(destination, obj);
+      return this;
+    }
     Message message;
     try {
       message = createJMSMessage(obj);
@@ -350,6 +479,7 @@ public class TracingJMSProducer implements JMSProducer {
   @Override
   public JMSProducer setAsync(CompletionListener arg0) {
     jmsProducer.setAsync(arg0);
+    completionListener = arg0;
     return this;
   }
 
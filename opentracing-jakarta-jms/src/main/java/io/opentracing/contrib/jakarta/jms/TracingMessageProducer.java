@@ -16,8 +16,13 @@ package io.opentracing.contrib.jakarta.jms;
 
 import io.opentracing.Span;
 import io.opentracing.Tracer;
+import io.opentracing.contrib.jms.common.DestinationFilter;
+import io.opentracing.contrib.jms.common.DestinationMetadata;
+import io.opentracing.contrib.jms.common.JmsMetrics;
 import io.opentracing.contrib.jms.common.SpanJmsDecorator;
 import io.opentracing.contrib.jms.common.TracingMessageUtils;
+import io.opentracing.contrib.jms.common.TransactionSpans;
+import java.util.List;
 import jakarta.jms.CompletionListener;
 import jakarta.jms.Destination;
 import jakarta.jms.JMSException;
@@ -29,12 +34,44 @@ import jakarta.jms.MessageProducer;
  */
 public class TracingMessageProducer implements MessageProducer {
 
+  private static final Send SEND =
+      (producer, destination, message, deliveryMode, priority, timeToLive) ->
+          producer.send(message);
+  private static final Send SEND_WITH_OPTIONS =
+      (producer, destination, message, deliveryMode, priority, timeToLive) ->
+          producer.send(message, deliveryMode, priority, timeToLive);
+  private static final Send SEND_TO =
+      (producer, destination, message, deliveryMode, priority, timeToLive) ->
+          producer.send(destination, message);
+  private static final Send SEND_TO_WITH_OPTIONS =
+      (producer, destination, message, deliveryMode, priority, timeToLive) ->
+          producer.send(destination, message, deliveryMode, priority, timeToLive);
+
   private final MessageProducer messageProducer;
   private final Tracer tracer;
+  private final DestinationFilter destinationFilter;
+  private final TransactionSpans transactionSpans;
+  private DestinationMetadata producerDestination;
 
   public TracingMessageProducer(MessageProducer messageProducer, Tracer tracer) {
+    this(messageProducer, tracer, DestinationFilter.ALL);
+  }
+
+  public TracingMessageProducer(MessageProducer messageProducer, Tracer tracer,
+      DestinationFilter destinationFilter) {
+    this(messageProducer, tracer, destinationFilter, null);
+  }
+
+  /**
+   * @param transactionSpans the transaction of the transacted session of the producer, spans of
+   *                         synchronous sends are reported when the transaction completes
+   */
+  public TracingMessageProducer(MessageProducer messageProducer, Tracer tracer,
+      DestinationFilter destinationFilter, TransactionSpans transactionSpans) {
     this.messageProducer = messageProducer;
     this.tracer = tracer;
+    this.destinationFilter = destinationFilter != null ? destinationFilter : DestinationFilter.ALL;
+    this.transactionSpans = transactionSpans;
   }
 
   @Override
@@ -107,88 +144,228 @@ public class TracingMessageProducer implements MessageProducer {
     messageProducer.close();
   }
 
-  @Override
-  public void send(Message message) throws JMSException {
-    Span span = TracingMessageUtils.startAndInjectSpan(getDestination(), message, tracer);
+  private void traced(DestinationMetadata metadata, Send send, Destination destination,
+      Message message, int deliveryMode, int priority, long timeToLive) throws JMSException {
+    if (transactionSpans != null) {
+      int record = transactionSpans.startSend(metadata, message);
+      Throwable error = null;
+      try {
+        send.send(messageProducer, destination, message, deliveryMode, priority, timeToLive);
+      } catch (Throwable e) {
+        error = e;
+        JmsMetrics.recordError(metadata);
+        throw e;
+      } finally {
+        transactionSpans.finished(record, error);
+      }
+      return;
+    }
+    Span span = TracingMessageUtils.startAndInjectSpan(metadata, message, tracer);
     try {
-      messageProducer.send(message);
+      send.send(messageProducer, destination, message, deliveryMode, priority, timeToLive);
     } catch (Throwable e) {
       SpanJmsDecorator.onError(e, span);
+      JmsMetrics.recordError(metadata);
       throw e;
     } finally {
       span.finish();
     }
-
   }
 
-  @Override
-  public void send(Message message, int deliveryMode, int priority, long timeToLive)
-      throws JMSException {
-    Span span = TracingMessageUtils.startAndInjectSpan(getDestination(), message, tracer);
+  private void tracedBatch(DestinationMetadata metadata, Send send, Destination destination,
+      List<? extends Message> messages) throws JMSException {
+    if (transactionSpans != null) {
+      int record = transactionSpans.startBatch(metadata, messages);
+      Throwable error = null;
+      try {
+        sendAll(send, destination, messages);
+      } catch (Throwable e) {
+        error = e;
+        JmsMetrics.recordError(metadata);
+        throw e;
+      } finally {
+        transactionSpans.finished(record, error);
+      }
+      return;
+    }
+    Span span = TracingMessageUtils.startAndInjectBatchSpan(metadata, messages, tracer);
     try {
-      messageProducer.send(message, deliveryMode, priority, timeToLive);
+      sendAll(send, destination, messages);
     } catch (Throwable e) {
       SpanJmsDecorator.onError(e, span);
+      JmsMetrics.recordError(metadata);
       throw e;
     } finally {
       span.finish();
     }
   }
 
+  private void sendAll(Send send, Destination destination, List<? extends Message> messages)
+      throws JMSException {
+    for (Message message : messages) {
+      send.send(messageProducer, destination, message, 0, 0, 0);
+    }
+  }
+
+  private DestinationMetadata producerDestination() throws JMSException {
+    DestinationMetadata metadata = producerDestination;
+    if (metadata == null) {
+      metadata = DestinationMetadata.of(messageProducer.getDestination());
+      producerDestination = metadata;
+    }
+    return metadata;
+  }
+
+  @Override
+  public void send(Message message) throws JMSException {
+    DestinationMetadata metadata = producerDestination();
+    JmsMetrics.recordSend(metadata);
+    if (!destinationFilter.isTraced(metadata)) {
+      messageProducer.send(message);
+      return;
+    }
+    traced(metadata, SEND, null, message, 0, 0, 0);
+  }
+
+  @Override
+  public void send(Message message, int deliveryMode, int priority, long timeToLive)
+      throws JMSException {
+    DestinationMetadata metadata = producerDestination();
+    JmsMetrics.recordSend(metadata);
+    if (!destinationFilter.isTraced(metadata)) {
+      messageProducer.send(message, deliveryMode, priority, timeToLive);
+      return;
+    }
+    traced(metadata, SEND_WITH_OPTIONS, null, message, deliveryMode, priority, timeToLive);
+  }
+
   @Override
   public void send(Destination destination, Message message) throws JMSException {
-    Span span = TracingMessageUtils.startAndInjectSpan(destination, message, tracer);
-    try {
+    DestinationMetadata metadata = DestinationMetadata.of(destination);
+    JmsMetrics.recordSend(metadata);
+    if (!destinationFilter.isTraced(metadata)) {
       messageProducer.send(destination, message);
-    } catch (Throwable e) {
-      SpanJmsDecorator.onError(e, span);
-      throw e;
-    } finally {
-      span.finish();
+      return;
     }
+    traced(metadata, SEND_TO, destination, message, 0, 0, 0);
   }
 
   @Override
   public void send(Destination destination, Message message, int deliveryMode, int priority,
       long timeToLive) throws JMSException {
-    Span span = TracingMessageUtils.startAndInjectSpan(destination, message, tracer);
-    try {
+    DestinationMetadata metadata = DestinationMetadata.of(destination);
+    JmsMetrics.recordSend(metadata);
+    if (!destinationFilter.isTraced(metadata)) {
       messageProducer.send(destination, message, deliveryMode, priority, timeToLive);
-    } catch (Throwable e) {
-      SpanJmsDecorator.onError(e, span);
-      throw e;
-    } finally {
-      span.finish();
+      return;
     }
+    traced(metadata, SEND_TO_WITH_OPTIONS, destination, message, deliveryMode, priority,
+        timeToLive);
   }
 
   @Override
   public void send(Message message, CompletionListener completionListener) throws JMSException {
-    Span span = TracingMessageUtils.startAndInjectSpan(getDestination(), message, tracer);
-    messageProducer.send(message, new TracingCompletionListener(span, completionListener));
+    DestinationMetadata metadata = producerDestination();
+    JmsMetrics.recordSend(metadata);
+    if (!destinationFilter.isTraced(metadata)) {
+      messageProducer.send(message, completionListener);
+      return;
+    }
+    Span span = TracingMessageUtils.startAndInjectSpan(metadata, message, tracer);
+    messageProducer.send(message,
+        new TracingCompletionListener(span, completionListener, metadata));
   }
 
   @Override
   public void send(Message message, int deliveryMode, int priority, long timeToLive,
       CompletionListener completionListener) throws JMSException {
-    Span span = TracingMessageUtils.startAndInjectSpan(getDestination(), message, tracer);
+    DestinationMetadata metadata = producerDestination();
+    JmsMetrics.recordSend(metadata);
+    if (!destinationFilter.isTraced(metadata)) {
+      messageProducer.send(message, deliveryMode, priority, timeToLive, completionListener);
+      return;
+    }
+    Span span = TracingMessageUtils.startAndInjectSpan(metadata, message, tracer);
     messageProducer.send(message, deliveryMode, priority, timeToLive,
-        new TracingCompletionListener(span, completionListener));
+        new TracingCompletionListener(span, completionListener, metadata));
   }
 
   @Override
   public void send(Destination destination, Message message, CompletionListener completionListener)
       throws JMSException {
-    Span span = TracingMessageUtils.startAndInjectSpan(destination, message, tracer);
+    DestinationMetadata metadata = DestinationMetadata.of(destination);
+    JmsMetrics.recordSend(metadata);
+    if (!destinationFilter.isTraced(metadata)) {
+      messageProducer.send(destination, message, completionListener);
+      return;
+    }
+    Span span = TracingMessageUtils.startAndInjectSpan(metadata, message, tracer);
     messageProducer.send(destination, message,
-        new TracingCompletionListener(span, completionListener));
+        new TracingCompletionListener(span, completionListener, metadata));
   }
 
   @Override
   public void send(Destination destination, Message message, int deliveryMode, int priority,
       long timeToLive, CompletionListener completionListener) throws JMSException {
-    Span span = TracingMessageUtils.startAndInjectSpan(destination, message, tracer);
+    DestinationMetadata metadata = DestinationMetadata.of(destination);
+    JmsMetrics.recordSend(metadata);
+    if (!destinationFilter.isTraced(metadata)) {
+      messageProducer.send(destination, message, deliveryMode, priority, timeToLive,
+          completionListener);
+      return;
+    }
+    Span span = TracingMessageUtils.startAndInjectSpan(metadata, message, tracer);
     messageProducer.send(destination, message, deliveryMode, priority, timeToLive,
-        new TracingCompletionListener(span, completionListener));
+        new TracingCompletionListener(span, completionListener, metadata));
+  }
+
+  /**
+   * Send the {@code messages} to the destination of this producer under one batch span. Every
+   * message carries the context of the batch span.
+   *
+   * @param messages the messages
+   * @throws JMSException if sending one of the messages fails, later messages are not sent
+   */
+  public void sendBatch(List<? extends Message> messages) throws JMSException {
+    DestinationMetadata metadata = producerDestination();
+    JmsMetrics.recordSends(metadata, messages.size());
+    if (!destinationFilter.isTraced(metadata)) {
+      for (Message message : messages) {
+        messageProducer.send(message);
+      }
+      return;
+    }
+    tracedBatch(metadata, SEND, null, messages);
+  }
+
+  /**
+   * Send the {@code messages} to the {@code destination} under one batch span. Every message
+   * carries the context of the batch span.
+   *
+   * @param destination the destination
+   * @param messages    the messages
+   * @throws JMSException if sending one of the messages fails, later messages are not sent
+   */
+  public void sendBatch(Destination destination, List<? extends Message> messages)
+      throws JMSException {
+    DestinationMetadata metadata = DestinationMetadata.of(destination);
+    JmsMetrics.recordSends(metadata, messages.size());
+    if (!destinationFilter.isTraced(metadata)) {
+      for (Message message : messages) {
+        messageProducer.send(destination, message);
+      }
+      return;
+    }
+    tracedBatch(metadata, SEND_TO, destination, messages);
+  }
+
+  /**
+   * A synchronous send overload of the target producer. The implementations capture nothing, so
+   * sending does not allocate a lambda.
+   */
+  private interface Send {
+
+    void send(MessageProducer producer, Destination destination, Message message,
+        int deliveryMode, int priority, long timeToLive) throws JMSException;
   }
 }
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jakarta.jms;
+
+import io.opentracing.Tracer;
+import io.opentracing.contrib.jms.common.DestinationMetadata;
+import io.opentracing.contrib.jms.common.JmsMetrics;
+import io.opentracing.contrib.jms.common.TracingMessageListener;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import jakarta.jms.Destination;
+import jakarta.jms.JMSConsumer;
+import jakarta.jms.JMSContext;
+import jakarta.jms.JMSRuntimeException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Publisher of the messages of a destination which receives only as many messages as requested.
+ * Every subscriber gets its own {@link JMSContext} and consumer, created from the context of the
+ * publisher. Each message is emitted within an activated consumer span.
+ *
+ * <p>Contexts of {@link JMSContext#SESSION_TRANSACTED} mode are committed after every {@code
+ * onNext}. If the subscriber throws, the exception is logged and counted as an error, the
+ * subscription is cancelled and the closed context rolls back the message.
+ */
+class TracingMessagePublisher implements Flow.Publisher<Message> {
+
+  private static final Logger log = LoggerFactory.getLogger(TracingMessagePublisher.class);
+  private static final long RECEIVE_TIMEOUT_MILLIS = 1000;
+
+  private final JMSContext jmsContext;
+  private final Tracer tracer;
+  private final Destination destination;
+  private final String messageSelector;
+  private final boolean traced;
+  private final Executor executor;
+
+  TracingMessagePublisher(JMSContext jmsContext, Tracer tracer, Destination destination,
+      String messageSelector, boolean traced, Executor executor) {
+    this.jmsContext = jmsContext;
+    this.tracer = tracer;
+    this.destination = destination;
+    this.messageSelector = messageSelector;
+    this.traced = traced;
+    this.executor = executor;
+  }
+
+  @Override
+  public void subscribe(Flow.Subscriber<? super Message> subscriber) {
+    Objects.requireNonNull(subscriber, "subscriber");
+    JMSContext context;
+    JMSConsumer consumer;
+    try {
+      context = jmsContext.createContext(jmsContext.getSessionMode());
+    } catch (JMSRuntimeException e) {
+      subscriber.onSubscribe(CancelledSubscription.INSTANCE);
+      subscriber.onError(e);
+      return;
+    }
+    try {
+      consumer = context.createConsumer(destination, messageSelector);
+    } catch (JMSRuntimeException e) {
+      context.close();
+      subscriber.onSubscribe(CancelledSubscription.INSTANCE);
+      subscriber.onError(e);
+      return;
+    }
+    MessageSubscription subscription = new MessageSubscription(subscriber, context, consumer);
+    subscriber.onSubscribe(subscription);
+    subscription.start();
+  }
+
+  private final class MessageSubscription implements Flow.Subscription {
+    private final Flow.Subscriber<? super Message> subscriber;
+    private final JMSContext context;
+    private final JMSConsumer consumer;
+    private final DestinationMetadata metadata = DestinationMetadata.of(destination);
+    private final MessageListener listener;
+    private final boolean transacted;
+    private final AtomicLong requested = new AtomicLong();
+    // held until onSubscribe returned, so requests made within it do not drain re-entrantly
+    private final AtomicInteger wip = new AtomicInteger(1);
+    private volatile boolean cancelled;
+    private volatile Throwable error;
+
+    MessageSubscription(Flow.Subscriber<? super Message> subscriber, JMSContext context,
+        JMSConsumer consumer) {
+      this.subscriber = subscriber;
+      this.context = context;
+      this.consumer = consumer;
+      this.listener = traced
+          ? new TracingMessageListener(subscriber::onNext, tracer, false, metadata)
+          : subscriber::onNext;
+      this.transacted = context.getSessionMode() == JMSContext.SESSION_TRANSACTED;
+    }
+
+    void start() {
+      if (wip.getAndDecrement() != 1) {
+        executor.execute(this::drain);
+      }
+    }
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        error = new IllegalArgumentException("non-positive request: " + n);
+      } else {
+        requested.getAndAccumulate(n, (current, add) -> {
+          long sum = current + add;
+          return sum < 0 ? Long.MAX_VALUE : sum;
+        });
+      }
+      schedule();
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      schedule();
+    }
+
+    private void schedule() {
+      if (wip.getAndIncrement() == 0) {
+        executor.execute(this::drain);
+      }
+    }
+
+    /**
+     * Receive and emit while there is demand. Runs on one thread at a time, the context is only
+     * used and closed here.
+     */
+    private void drain() {
+      int missed = 1;
+      while (true) {
+        while (true) {
+          if (cancelled) {
+            context.close();
+            return;
+          }
+          Throwable failure = error;
+          if (failure != null) {
+            cancelled = true;
+            context.close();
+            subscriber.onError(failure);
+            return;
+          }
+          if (requested.get() == 0) {
+            break;
+          }
+          if (!emitNext()) {
+            return;
+          }
+        }
+        missed = wip.addAndGet(-missed);
+        if (missed == 0) {
+          return;
+        }
+      }
+    }
+
+    /**
+     * @return {@code false} if the subscriber threw and the subscription is cancelled
+     */
+    private boolean emitNext() {
+      Message message;
+      try {
+        message = consumer.receive(RECEIVE_TIMEOUT_MILLIS);
+      } catch (JMSRuntimeException e) {
+        error = e;
+        return true;
+      }
+      if (message == null) {
+        return true;
+      }
+      if (!traced) {
+        // counted by the tracing listener otherwise
+        JmsMetrics.recordListenerInvocation(metadata, message);
+      }
+      if (requested.get() != Long.MAX_VALUE) {
+        requested.decrementAndGet();
+      }
+      try {
+        listener.onMessage(message);
+      } catch (RuntimeException e) {
+        // a subscriber must not throw, consider the subscription cancelled
+        log.warn("Subscriber failed, cancelling the subscription", e);
+        if (!traced) {
+          JmsMetrics.recordError(metadata);
+        }
+        cancelled = true;
+        context.close();
+        return false;
+      }
+      if (transacted) {
+        try {
+          context.commit();
+        } catch (JMSRuntimeException e) {
+          error = e;
+        }
+      }
+      return true;
+    }
+  }
+
+  private enum CancelledSubscription implements Flow.Subscription {
+    INSTANCE;
+
+    @Override
+    public void request(long n) {
+    }
+
+    @Override
+    public void cancel() {
+    }
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jakarta.jms;
+
+import io.opentracing.contrib.jms.common.DestinationFilter;
+
+/**
+ * Settings of the tracing decorators, passed from {@link TracingConnectionFactory} to the
+ * connections, sessions and contexts it creates.
+ */
+public final class TracingOptions {
+
+  public static final TracingOptions DEFAULT = new Builder().build();
+
+  private final boolean traceInLog;
+  private final boolean proxyMessage;
+  private final DestinationFilter destinationFilter;
+  private final int browsePageSize;
+
+  private TracingOptions(Builder builder) {
+    this.traceInLog = builder.traceInLog;
+    this.proxyMessage = builder.proxyMessage;
+    this.destinationFilter = builder.destinationFilter;
+    this.browsePageSize = builder.browsePageSize;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public boolean isTraceInLog() {
+    return traceInLog;
+  }
+
+  public boolean isProxyMessage() {
+    return proxyMessage;
+  }
+
+  public DestinationFilter getDestinationFilter() {
+    return destinationFilter;
+  }
+
+  public int getBrowsePageSize() {
+    return browsePageSize;
+  }
+
+  public static final class Builder {
+
+    private boolean traceInLog;
+    private boolean proxyMessage;
+    private DestinationFilter destinationFilter = DestinationFilter.ALL;
+    private int browsePageSize = TracingQueueBrowser.DEFAULT_PAGE_SIZE;
+
+    private Builder() {
+    }
+
+    /**
+     * @param traceInLog {@code true} to put the trace and span ids of listener spans into the MDC
+     * @return this builder
+     */
+    public Builder traceInLog(boolean traceInLog) {
+      this.traceInLog = traceInLog;
+      return this;
+    }
+
+    /**
+     * @param proxyMessage {@code true} to return received messages as {@code TracedMessage}
+     *                     carrying the context of their consumer span
+     * @return this builder
+     */
+    public Builder proxyMessage(boolean proxyMessage) {
+      this.proxyMessage = proxyMessage;
+      return this;
+    }
+
+    /**
+     * @param destinationFilter destinations to trace, producers and consumers of other
+     *                          destinations are returned undecorated
+     * @return this builder
+     */
+    public Builder destinationFilter(DestinationFilter destinationFilter) {
+      this.destinationFilter = destinationFilter != null ? destinationFilter : DestinationFilter.ALL;
+      return this;
+    }
+
+    /**
+     * @param browsePageSize the number of messages per span of queue browsers
+     * @return this builder
+     */
+    public Builder browsePageSize(int browsePageSize) {
+      if (browsePageSize <= 0) {
+        throw new IllegalArgumentException("browsePageSize must be positive: " + browsePageSize);
+      }
+      this.browsePageSize = browsePageSize;
+      return this;
+    }
+
+    public TracingOptions build() {
+      return new TracingOptions(this);
+    }
+  }
+}
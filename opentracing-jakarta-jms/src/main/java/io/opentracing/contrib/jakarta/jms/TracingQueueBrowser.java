@@ -0,0 +1,179 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jakarta.jms;
+
+import io.opentracing.Span;
+import io.opentracing.Tracer;
+import io.opentracing.contrib.jms.common.DestinationMetadata;
+import io.opentracing.contrib.jms.common.SpanJmsDecorator;
+import io.opentracing.contrib.jms.common.TracingMessageUtils;
+import io.opentracing.tag.Tags;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import jakarta.jms.JMSException;
+import jakarta.jms.Queue;
+import jakarta.jms.QueueBrowser;
+
+/**
+ * Tracing decorator for JMS QueueBrowser.
+ * <p>
+ * Browsing produces one span per page of {@code pageSize} messages instead of one per message. The
+ * span starts with the first read of the page and finishes with its last message, at the end of
+ * the enumeration or when the browser is closed. It is tagged with the number of messages and the
+ * time spent reading them from the provider, the rest of its duration is spent by the caller.
+ * Messages are read lazily and returned as is, the span context of a browsed message is only
+ * extracted if the caller asks for it with {@link TracingMessageUtils#extract}.
+ */
+public class TracingQueueBrowser implements QueueBrowser {
+
+  public static final int DEFAULT_PAGE_SIZE = 100;
+  public static final String PAGE_TAG = "messaging.browse.page";
+  public static final String MESSAGE_COUNT_TAG = "messaging.browse.message_count";
+  public static final String FETCH_TIME_TAG = "messaging.browse.fetch_time_ms";
+
+  private final QueueBrowser browser;
+  private final Tracer tracer;
+  private final int pageSize;
+  private final List<TracingEnumeration> enumerations = new ArrayList<>();
+
+  public TracingQueueBrowser(QueueBrowser browser, Tracer tracer) {
+    this(browser, tracer, DEFAULT_PAGE_SIZE);
+  }
+
+  /**
+   * @param pageSize the number of browsed messages per span
+   */
+  public TracingQueueBrowser(QueueBrowser browser, Tracer tracer, int pageSize) {
+    if (pageSize <= 0) {
+      throw new IllegalArgumentException("pageSize must be positive: " + pageSize);
+    }
+    this.browser = browser;
+    this.tracer = tracer;
+    this.pageSize = pageSize;
+  }
+
+  @Override
+  public Queue getQueue() throws JMSException {
+    return browser.getQueue();
+  }
+
+  @Override
+  public String getMessageSelector() throws JMSException {
+    return browser.getMessageSelector();
+  }
+
+  @Override
+  public Enumeration getEnumeration() throws JMSException {
+    TracingEnumeration enumeration = new TracingEnumeration(browser.getEnumeration(),
+        DestinationMetadata.of(browser.getQueue()));
+    enumerations.add(enumeration);
+    return enumeration;
+  }
+
+  @Override
+  public void close() throws JMSException {
+    try {
+      browser.close();
+    } finally {
+      for (TracingEnumeration enumeration : enumerations) {
+        enumeration.finishPage();
+      }
+      enumerations.clear();
+    }
+  }
+
+  private final class TracingEnumeration implements Enumeration<Object> {
+
+    private final Enumeration<?> enumeration;
+    private final DestinationMetadata destination;
+    private int page;
+    private long pageStartMicros;
+    private long fetchNanos;
+    private int count;
+    private Span span;
+
+    TracingEnumeration(Enumeration<?> enumeration, DestinationMetadata destination) {
+      this.enumeration = enumeration;
+      this.destination = destination;
+    }
+
+    @Override
+    public boolean hasMoreElements() {
+      startPage();
+      long start = System.nanoTime();
+      boolean more = false;
+      try {
+        more = enumeration.hasMoreElements();
+      } finally {
+        fetchNanos += System.nanoTime() - start;
+        if (!more) {
+          finishPage();
+          enumerations.remove(this);
+        }
+      }
+      return more;
+    }
+
+    @Override
+    public Object nextElement() {
+      startPage();
+      long start = System.nanoTime();
+      Object message;
+      try {
+        message = enumeration.nextElement();
+      } catch (RuntimeException e) {
+        fetchNanos += System.nanoTime() - start;
+        if (span != null) {
+          SpanJmsDecorator.onError(e, span);
+        }
+        finishPage();
+        throw e;
+      }
+      fetchNanos += System.nanoTime() - start;
+      if (++count == 1) {
+        span = tracer.buildSpan(TracingMessageUtils.OPERATION_NAME_BROWSE)
+            .withStartTimestamp(pageStartMicros)
+            .withTag(Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_CONSUMER)
+            .withTag(PAGE_TAG, page)
+            .start();
+        SpanJmsDecorator.onRequest(destination, span);
+      }
+      if (count == pageSize) {
+        finishPage();
+      }
+      return message;
+    }
+
+    private void startPage() {
+      if (pageStartMicros == 0) {
+        pageStartMicros = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+      }
+    }
+
+    void finishPage() {
+      if (span != null) {
+        span.setTag(MESSAGE_COUNT_TAG, count);
+        span.setTag(FETCH_TIME_TAG, TimeUnit.NANOSECONDS.toMillis(fetchNanos));
+        span.finish();
+        span = null;
+        page++;
+      }
+      pageStartMicros = 0;
+      fetchNanos = 0;
+      count = 0;
+    }
+  }
+}
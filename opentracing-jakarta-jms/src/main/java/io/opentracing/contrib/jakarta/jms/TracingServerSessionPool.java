@@ -0,0 +1,68 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jakarta.jms;
+
+import io.opentracing.Tracer;
+import io.opentracing.contrib.jms.common.TracingMessageListener;
+import jakarta.jms.JMSException;
+import jakarta.jms.MessageListener;
+import jakarta.jms.ServerSession;
+import jakarta.jms.ServerSessionPool;
+import jakarta.jms.Session;
+
+/**
+ * Tracing decorator for JMS ServerSessionPool, used by {@link TracingConnection} for connection
+ * consumers.
+ * <p>
+ * The provider runs the messages of a {@link ServerSession} through the distinguished message
+ * listener of its session. When the pool hands out a server session, the listener of its session,
+ * unwrapped from a {@link TracingSession}, is replaced once by a {@link TracingMessageListener}.
+ * The server session itself is returned unchanged, so the pool keeps no state and allocates
+ * nothing per dispatch. The provider expects its own sessions, so server sessions should be
+ * created on the provider connection rather than on a {@link TracingConnection}.
+ */
+public class TracingServerSessionPool implements ServerSessionPool {
+
+  private final ServerSessionPool sessionPool;
+  private final Tracer tracer;
+  private final boolean traceInLog;
+
+  public TracingServerSessionPool(ServerSessionPool sessionPool, Tracer tracer) {
+    this(sessionPool, tracer, false);
+  }
+
+  public TracingServerSessionPool(ServerSessionPool sessionPool, Tracer tracer,
+      boolean traceInLog) {
+    this.sessionPool = sessionPool;
+    this.tracer = tracer;
+    this.traceInLog = traceInLog;
+  }
+
+  @Override
+  public ServerSession getServerSession() throws JMSException {
+    ServerSession serverSession = sessionPool.getServerSession();
+    if (serverSession == null) {
+      return null;
+    }
+    Session session = serverSession.getSession();
+    if (session instanceof TracingSession) {
+      session = ((TracingSession) session).getSession();
+    }
+    MessageListener listener = session.getMessageListener();
+    if (listener != null && !(listener instanceof TracingMessageListener)) {
+      session.setMessageListener(new TracingMessageListener(listener, tracer, traceInLog));
+    }
+    return serverSession;
+  }
+}
@@ -14,7 +14,9 @@
 package io.opentracing.contrib.jakarta.jms;
 
 import io.opentracing.Tracer;
+import io.opentracing.contrib.jms.common.DestinationFilter;
 import io.opentracing.contrib.jms.common.TracingMessageConsumer;
+import io.opentracing.contrib.jms.common.TransactionSpans;
 import java.io.Serializable;
 import jakarta.jms.BytesMessage;
 import jakarta.jms.Destination;
@@ -38,16 +40,26 @@ import jakarta.jms.TopicSubscriber;
 public class TracingSession implements Session {
   private final Session session;
   private final Tracer tracer;
-  private final boolean traceInLog;
+  private final TracingOptions options;
+  private final DestinationFilter destinationFilter;
+  private TransactionSpans transactionSpans;
 
   public TracingSession(Session session, Tracer tracer) {
-    this(session, tracer, false);
+    this(session, tracer, TracingOptions.DEFAULT);
   }
 
   public TracingSession(Session session, Tracer tracer, boolean traceInLog) {
+    this(session, tracer, TracingOptions.builder().traceInLog(traceInLog).build());
+  }
+
+  /**
+   * @param options the settings of the created producers, consumers and browsers
+   */
+  public TracingSession(Session session, Tracer tracer, TracingOptions options) {
     this.session = session;
     this.tracer = tracer;
-    this.traceInLog = traceInLog;
+    this.options = options != null ? options : TracingOptions.DEFAULT;
+    this.destinationFilter = this.options.getDestinationFilter();
   }
 
   @Override
@@ -102,17 +114,41 @@ public class TracingSession implements Session {
 
   @Override
   public void commit() throws JMSException {
-    session.commit();
+    if (transactionSpans == null) {
+      session.commit();
+      return;
+    }
+    transactionSpans.startCommit();
+    try {
+      session.commit();
+    } catch (JMSException | RuntimeException e) {
+      transactionSpans.commitFailed(e);
+      throw e;
+    }
+    transactionSpans.committed();
   }
 
   @Override
   public void rollback() throws JMSException {
-    session.rollback();
+    try {
+      session.rollback();
+    } finally {
+      if (transactionSpans != null) {
+        transactionSpans.rolledBack();
+      }
+    }
   }
 
   @Override
   public void close() throws JMSException {
-    session.close();
+    try {
+      session.close();
+    } finally {
+      // closing a transacted session rolls back its transaction
+      if (transactionSpans != null) {
+        transactionSpans.rolledBack();
+      }
+    }
   }
 
   @Override
@@ -135,44 +171,48 @@ public class TracingSession implements Session {
     session.run();
   }
 
+  Session getSession() {
+    return session;
+  }
+
   @Override
   public MessageProducer createProducer(Destination destination) throws JMSException {
-    return new TracingMessageProducer(session.createProducer(destination), tracer);
+    MessageProducer producer = session.createProducer(destination);
+    if (destination != null && !destinationFilter.isTraced(destination)) {
+      return producer;
+    }
+    return new TracingMessageProducer(producer, tracer, destinationFilter,
+        transactionSpans());
   }
 
   @Override
   public MessageConsumer createConsumer(Destination destination) throws JMSException {
-    return new TracingMessageConsumer(session.createConsumer(destination), tracer, false,
-        traceInLog);
+    return traced(destination, session.createConsumer(destination));
   }
 
   @Override
   public MessageConsumer createConsumer(Destination destination, String messageSelector)
       throws JMSException {
-    return new TracingMessageConsumer(session.createConsumer(destination, messageSelector), tracer,
-        false, traceInLog);
+    return traced(destination, session.createConsumer(destination, messageSelector));
   }
 
   @Override
   public MessageConsumer createConsumer(Destination destination, String messageSelector,
       boolean noLocal) throws JMSException {
-    return new TracingMessageConsumer(session.createConsumer(destination, messageSelector, noLocal),
-        tracer, false, traceInLog);
+    return traced(destination, session.createConsumer(destination, messageSelector, noLocal));
   }
 
   @Override
   public MessageConsumer createSharedConsumer(Topic topic, String sharedSubscriptionName)
       throws JMSException {
-    return new TracingMessageConsumer(session.createSharedConsumer(topic, sharedSubscriptionName),
-        tracer, false, traceInLog);
+    return traced(topic, session.createSharedConsumer(topic, sharedSubscriptionName));
   }
 
   @Override
   public MessageConsumer createSharedConsumer(Topic topic, String sharedSubscriptionName,
       String messageSelector) throws JMSException {
-    return new TracingMessageConsumer(
-        session.createSharedConsumer(topic, sharedSubscriptionName, messageSelector), tracer,
-        false, traceInLog);
+    return traced(topic,
+        session.createSharedConsumer(topic, sharedSubscriptionName, messageSelector));
   }
 
   @Override
@@ -204,33 +244,28 @@ public class TracingSession implements Session {
   @Override
   public MessageConsumer createDurableConsumer(Topic topic, String name, String messageSelector,
       boolean noLocal) throws JMSException {
-    return new TracingMessageConsumer(
-        session.createDurableConsumer(topic, name, messageSelector, noLocal), tracer, false,
-        traceInLog);
+    return traced(topic, session.createDurableConsumer(topic, name, messageSelector, noLocal));
   }
 
   @Override
   public MessageConsumer createSharedDurableConsumer(Topic topic, String name) throws JMSException {
-    return new TracingMessageConsumer(session.createSharedDurableConsumer(topic, name), tracer,
-        false, traceInLog);
+    return traced(topic, session.createSharedDurableConsumer(topic, name));
   }
 
   @Override
   public MessageConsumer createSharedDurableConsumer(Topic topic, String name,
       String messageSelector) throws JMSException {
-    return new TracingMessageConsumer(
-        session.createSharedDurableConsumer(topic, name, messageSelector), tracer, false,
-        traceInLog);
+    return traced(topic, session.createSharedDurableConsumer(topic, name, messageSelector));
   }
 
   @Override
   public QueueBrowser createBrowser(Queue queue) throws JMSException {
-    return session.createBrowser(queue);
+    return traced(queue, session.createBrowser(queue));
   }
 
   @Override
   public QueueBrowser createBrowser(Queue queue, String messageSelector) throws JMSException {
-    return session.createBrowser(queue, messageSelector);
+    return traced(queue, session.createBrowser(queue, messageSelector));
   }
 
   @Override
@@ -247,4 +282,27 @@ public class TracingSession implements Session {
   public void unsubscribe(String name) throws JMSException {
     session.unsubscribe(name);
   }
+
+  private TransactionSpans transactionSpans() throws JMSException {
+    if (transactionSpans == null && session.getTransacted()) {
+      transactionSpans = new TransactionSpans(tracer);
+    }
+    return transactionSpans;
+  }
+
+  private MessageConsumer traced(Destination destination, MessageConsumer consumer)
+      throws JMSException {
+    if (!destinationFilter.isTraced(destination)) {
+      return consumer;
+    }
+    return new TracingMessageConsumer(consumer, tracer, options.isProxyMessage(),
+        options.isTraceInLog(), destination, transactionSpans());
+  }
+
+  private QueueBrowser traced(Queue queue, QueueBrowser browser) {
+    if (!destinationFilter.isTraced(queue)) {
+      return browser;
+    }
+    return new TracingQueueBrowser(browser, tracer, options.getBrowsePageSize());
+  }
 }
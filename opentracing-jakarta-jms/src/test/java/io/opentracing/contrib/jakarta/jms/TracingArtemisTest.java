@@ -16,33 +16,58 @@ package io.opentracing.contrib.jakarta.jms;
 import static org.awaitility.Awaitility.await;
 import static org.hamcrest.core.IsEqual.equalTo;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import io.opentracing.References;
+import io.opentracing.contrib.jms.common.DestinationCounters;
+import io.opentracing.contrib.jms.common.JmsMetrics;
+import io.opentracing.contrib.jms.common.OrderedTracingMessageListener;
 import io.opentracing.contrib.jms.common.SpanContextContainer;
 import io.opentracing.contrib.jms.common.TracingMessageConsumer;
 import io.opentracing.contrib.jms.common.TracingMessageListener;
 import io.opentracing.contrib.jms.common.TracingMessageUtils;
+import io.opentracing.contrib.jms.common.TransactionSpans;
 import io.opentracing.mock.MockSpan;
 import io.opentracing.mock.MockTracer;
 import io.opentracing.tag.Tags;
 import java.io.File;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import jakarta.jms.BytesMessage;
 import jakarta.jms.Connection;
 import jakarta.jms.Destination;
+import jakarta.jms.JMSConsumer;
 import jakarta.jms.JMSContext;
+import jakarta.jms.JMSException;
 import jakarta.jms.JMSProducer;
+import jakarta.jms.MapMessage;
 import jakarta.jms.Message;
 import jakarta.jms.MessageConsumer;
 import jakarta.jms.MessageListener;
 import jakarta.jms.MessageProducer;
+import jakarta.jms.ObjectMessage;
 import jakarta.jms.Queue;
+import jakarta.jms.QueueBrowser;
+import jakarta.jms.ServerSession;
+import jakarta.jms.ServerSessionPool;
 import jakarta.jms.Session;
+import jakarta.jms.StreamMessage;
 import jakarta.jms.TextMessage;
 import org.apache.activemq.artemis.api.core.TransportConfiguration;
 import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
@@ -74,6 +99,8 @@ public class TracingArtemisTest {
     transports.add(new TransportConfiguration(InVMAcceptorFactory.class.getName()));
     configuration.setAcceptorConfigurations(transports);
     configuration.setSecurityEnabled(false);
+    // every test starts with empty queues
+    configuration.setPersistenceEnabled(false);
 
     File targetDir = new File(System.getProperty("user.dir") + "/target");
     configuration.setBrokerInstance(targetDir);
@@ -159,6 +186,72 @@ public class TracingArtemisTest {
     assertNull(mockTracer.activeSpan());
   }
 
+  @Test
+  public void receiveTypedMessagesWithSpanContext() throws Exception {
+    Queue queue = session.createQueue("TEST.TYPED");
+    TracingMessageProducer producer =
+        new TracingMessageProducer(session.createProducer(queue), mockTracer);
+    TracingMessageConsumer consumer =
+        new TracingMessageConsumer(session.createConsumer(queue), mockTracer, true);
+
+    BytesMessage bytesMessage = session.createBytesMessage();
+    bytesMessage.writeInt(42);
+    producer.send(bytesMessage);
+    MapMessage mapMessage = session.createMapMessage();
+    mapMessage.setString("key", "value");
+    producer.send(mapMessage);
+    producer.send(session.createObjectMessage(42L));
+    StreamMessage streamMessage = session.createStreamMessage();
+    streamMessage.writeString("stream");
+    producer.send(streamMessage);
+    producer.send(session.createMessage());
+
+    BytesMessage receivedBytes = (BytesMessage) consumer.receive(5000);
+    assertEquals(42, receivedBytes.readInt());
+    MapMessage receivedMap = (MapMessage) consumer.receive(5000);
+    assertEquals("value", receivedMap.getString("key"));
+    ObjectMessage receivedObject = (ObjectMessage) consumer.receive(5000);
+    assertEquals(42L, receivedObject.getObject());
+    StreamMessage receivedStream = (StreamMessage) consumer.receive(5000);
+    assertEquals("stream", receivedStream.readString());
+    Message receivedMessage = consumer.receive(5000);
+    assertFalse(receivedMessage instanceof TextMessage);
+
+    for (Message received : new Message[]{receivedBytes, receivedMap, receivedObject,
+        receivedStream, receivedMessage}) {
+      assertNotNull(((SpanContextContainer) received).getSpanContext());
+    }
+    assertEquals(10, mockTracer.finishedSpans().size());
+  }
+
+  @Test
+  public void sendBatchAndReceive() throws Exception {
+    Queue queue = session.createQueue("TEST.BATCH");
+    TracingMessageProducer producer =
+        new TracingMessageProducer(session.createProducer(queue), mockTracer);
+    TracingMessageConsumer consumer =
+        new TracingMessageConsumer(session.createConsumer(queue), mockTracer);
+
+    producer.sendBatch(Arrays.asList(session.createTextMessage("1"),
+        session.createTextMessage("2"), session.createTextMessage("3")));
+
+    List<MockSpan> mockSpans = mockTracer.finishedSpans();
+    assertEquals(1, mockSpans.size());
+    MockSpan batchSpan = mockSpans.get(0);
+    assertEquals(TracingMessageUtils.OPERATION_NAME_SEND_BATCH, batchSpan.operationName());
+    assertEquals(3, batchSpan.tags().get(TracingMessageUtils.BATCH_SIZE_TAG));
+
+    for (String text : new String[]{"1", "2", "3"}) {
+      assertEquals(text, ((TextMessage) consumer.receive(5000)).getText());
+    }
+    mockSpans = mockTracer.finishedSpans();
+    assertEquals(4, mockSpans.size());
+    for (MockSpan mockSpan : mockSpans.subList(1, 4)) {
+      assertEquals(batchSpan.context().spanId(), mockSpan.parentId());
+      assertEquals(batchSpan.context().traceId(), mockSpan.context().traceId());
+    }
+  }
+
   @Test
   public void sendAndReceiveJMSProducer() throws Exception {
     Destination destination = session.createQueue("TEST.FOO");
@@ -224,6 +317,432 @@ public class TracingArtemisTest {
     assertNull(mockTracer.activeSpan());
   }
 
+  @Test
+  public void serverSessionPoolTracesDistinguishedListener() throws Exception {
+    Queue queue = session.createQueue("TEST.SERVER_SESSION");
+    TracingMessageProducer producer =
+        new TracingMessageProducer(session.createProducer(queue), mockTracer);
+    producer.send(session.createTextMessage("Hello world"));
+    Message delivered = session.createConsumer(queue).receive(5000);
+    assertNotNull(delivered);
+
+    // provider session with a distinguished listener, Artemis does not support them
+    final AtomicReference<MessageListener> distinguishedListener = new AtomicReference<>();
+    Session providerSession = (Session) Proxy.newProxyInstance(getClass().getClassLoader(),
+        new Class<?>[]{Session.class}, (proxy, method, args) -> {
+          if (method.getName().equals("setMessageListener")) {
+            distinguishedListener.set((MessageListener) args[0]);
+          }
+          return method.getName().equals("getMessageListener")
+              ? distinguishedListener.get() : null;
+        });
+    // application pool of traced sessions
+    final Session pooledSession = new TracingSession(providerSession, mockTracer);
+    final AtomicReference<io.opentracing.Span> activeSpan = new AtomicReference<>();
+    pooledSession.setMessageListener(message -> activeSpan.set(mockTracer.activeSpan()));
+    final ServerSession serverSession = new ServerSession() {
+      @Override
+      public Session getSession() {
+        return pooledSession;
+      }
+
+      @Override
+      public void start() {
+        pooledSession.run();
+      }
+    };
+    ServerSessionPool sessionPool = () -> serverSession;
+
+    TracingServerSessionPool tracingPool = new TracingServerSessionPool(sessionPool, mockTracer);
+    // the server session is handed out unchanged, with a traced distinguished listener
+    assertSame(serverSession, tracingPool.getServerSession());
+    MessageListener listener = providerSession.getMessageListener();
+    assertTrue(listener instanceof TracingMessageListener);
+    // the listener is wrapped once per session, not per dispatch
+    assertSame(serverSession, tracingPool.getServerSession());
+    assertSame(listener, providerSession.getMessageListener());
+
+    listener.onMessage(delivered);
+    assertNotNull(activeSpan.get());
+
+    List<MockSpan> mockSpans = mockTracer.finishedSpans();
+    assertEquals(2, mockSpans.size());
+    assertEquals(mockSpans.get(0).context().traceId(), mockSpans.get(1).context().traceId());
+    assertNull(mockTracer.activeSpan());
+  }
+
+  @Test
+  public void browserReportsOneSpanPerPage() throws Exception {
+    Queue queue = session.createQueue("TEST.BROWSE");
+    MessageProducer producer = session.createProducer(queue);
+    for (int i = 0; i < 5; i++) {
+      producer.send(session.createTextMessage("message " + i));
+    }
+    TracingSession tracingSession =
+        new TracingSession(session, mockTracer, TracingOptions.builder().browsePageSize(2).build());
+    QueueBrowser browser = tracingSession.createBrowser(queue);
+    assertTrue(browser instanceof TracingQueueBrowser);
+    Enumeration<?> enumeration = browser.getEnumeration();
+    int browsed = 0;
+    while (enumeration.hasMoreElements()) {
+      assertEquals("message " + browsed, ((TextMessage) enumeration.nextElement()).getText());
+      browsed++;
+    }
+    browser.close();
+    assertEquals(5, browsed);
+
+    List<MockSpan> mockSpans = mockTracer.finishedSpans();
+    assertEquals(3, mockSpans.size());
+    int[] counts = {2, 2, 1};
+    for (int page = 0; page < counts.length; page++) {
+      MockSpan span = mockSpans.get(page);
+      assertEquals(TracingMessageUtils.OPERATION_NAME_BROWSE, span.operationName());
+      assertEquals(page, span.tags().get(TracingQueueBrowser.PAGE_TAG));
+      assertEquals(counts[page], span.tags().get(TracingQueueBrowser.MESSAGE_COUNT_TAG));
+      assertEquals("TEST.BROWSE", span.tags().get(Tags.MESSAGE_BUS_DESTINATION.getKey()));
+    }
+    // browsing does not consume
+    assertNotNull(session.createConsumer(queue).receive(5000));
+  }
+
+  @Test
+  public void transactedSessionReportsSpansOnCompletion() throws Exception {
+    Queue queue = session.createQueue("TEST.TRANSACTED");
+    TracingSession transacted = new TracingSession(
+        connection.createSession(true, Session.SESSION_TRANSACTED), mockTracer);
+    MessageProducer producer = transacted.createProducer(queue);
+    for (int i = 0; i < 3; i++) {
+      producer.send(transacted.createTextMessage("message " + i));
+    }
+    assertTrue(mockTracer.finishedSpans().isEmpty());
+
+    transacted.commit();
+    List<MockSpan> mockSpans = mockTracer.finishedSpans();
+    assertEquals(4, mockSpans.size());
+    MockSpan commitSpan = mockSpans.get(3);
+    assertEquals(TracingMessageUtils.OPERATION_NAME_COMMIT, commitSpan.operationName());
+    assertEquals(3, commitSpan.tags().get(TransactionSpans.SPAN_COUNT_TAG));
+    for (MockSpan span : mockSpans.subList(0, 3)) {
+      assertEquals(TracingMessageUtils.OPERATION_NAME_SEND, span.operationName());
+      assertEquals(commitSpan.context().spanId(), span.parentId());
+      assertTrue(span.startMicros() >= commitSpan.startMicros());
+      assertTrue(span.finishMicros() >= span.startMicros());
+      assertTrue(span.finishMicros() <= commitSpan.finishMicros());
+    }
+    assertEquals(1, commitSpan.logEntries().size());
+
+    mockTracer.reset();
+    MessageConsumer consumer = transacted.createConsumer(queue);
+    assertNotNull(consumer.receive(5000));
+    transacted.rollback();
+    mockSpans = mockTracer.finishedSpans();
+    assertEquals(2, mockSpans.size());
+    for (MockSpan span : mockSpans) {
+      assertEquals(true, span.tags().get(TransactionSpans.ROLLED_BACK_TAG));
+    }
+
+    mockTracer.reset();
+    for (int i = 0; i < 3; i++) {
+      assertNotNull(consumer.receive(5000));
+    }
+    transacted.commit();
+    mockSpans = mockTracer.finishedSpans();
+    assertEquals(4, mockSpans.size());
+    assertEquals(TracingMessageUtils.OPERATION_NAME_COMMIT, mockSpans.get(3).operationName());
+    for (MockSpan span : mockSpans.subList(0, 3)) {
+      assertEquals(TracingMessageUtils.OPERATION_NAME_RECEIVE, span.operationName());
+      assertEquals(mockSpans.get(3).context().spanId(), span.parentId());
+      // the messages were sent in the committed transaction
+      MockSpan.Reference reference = span.references().get(1);
+      assertEquals(References.FOLLOWS_FROM, reference.getReferenceType());
+      assertEquals(commitSpan.context().spanId(), reference.getContext().spanId());
+    }
+    transacted.close();
+    assertNull(mockTracer.activeSpan());
+  }
+
+  @Test
+  public void transactedReceiveWithListenerIsReportedOnCommit() throws Exception {
+    Queue queue = session.createQueue("TEST.TRANSACTED.LISTENER");
+    new TracingMessageProducer(session.createProducer(queue), mockTracer)
+        .send(session.createTextMessage("message"));
+    mockTracer.reset();
+
+    TracingSession transacted = new TracingSession(
+        connection.createSession(true, Session.SESSION_TRANSACTED), mockTracer);
+    TracingMessageConsumer consumer = (TracingMessageConsumer) transacted.createConsumer(queue);
+    final AtomicReference<MockSpan> activeSpan = new AtomicReference<>();
+    assertTrue(consumer.receive(5000, new MessageListener() {
+      @Override
+      public void onMessage(Message message) {
+        activeSpan.set((MockSpan) mockTracer.activeSpan());
+      }
+    }));
+    assertTrue(mockTracer.finishedSpans().isEmpty());
+
+    transacted.commit();
+    List<MockSpan> mockSpans = mockTracer.finishedSpans();
+    assertEquals(2, mockSpans.size());
+    MockSpan commitSpan = mockSpans.get(1);
+    assertEquals(TracingMessageUtils.OPERATION_NAME_COMMIT, commitSpan.operationName());
+    assertSame(commitSpan, activeSpan.get());
+    assertEquals(TracingMessageUtils.OPERATION_NAME_ON_MESSAGE, mockSpans.get(0).operationName());
+    assertEquals(commitSpan.context().spanId(), mockSpans.get(0).parentId());
+    transacted.close();
+  }
+
+  @Test
+  public void consumerRunnerProcessesMessagesInActiveSpans() throws Exception {
+    Queue queue = session.createQueue("TEST.RUNNER");
+    TracingMessageProducer producer =
+        new TracingMessageProducer(session.createProducer(queue), mockTracer);
+
+    final int messages = 20;
+    final CountDownLatch processed = new CountDownLatch(messages);
+    final List<MockSpan> activeSpans = new CopyOnWriteArrayList<>();
+    TracingConsumerRunner runner = new TracingConsumerRunner(connection, mockTracer, queue, 4,
+        new MessageListener() {
+          @Override
+          public void onMessage(Message message) {
+            activeSpans.add((MockSpan) mockTracer.activeSpan());
+            processed.countDown();
+          }
+        });
+    runner.start();
+    for (int i = 0; i < messages; i++) {
+      producer.send(session.createTextMessage("message " + i));
+    }
+
+    assertTrue(processed.await(15, TimeUnit.SECONDS));
+    assertTrue(runner.stop(15, TimeUnit.SECONDS));
+    assertFalse(runner.isRunning());
+
+    assertEquals(messages, activeSpans.size());
+    for (MockSpan span : activeSpans) {
+      assertNotNull(span);
+      assertEquals(Tags.SPAN_KIND_CONSUMER, span.tags().get(Tags.SPAN_KIND.getKey()));
+    }
+    await().atMost(15, TimeUnit.SECONDS).until(reportedSpansSize(), equalTo(2 * messages));
+  }
+
+  @Test
+  public void consumerRunnerReportsListenerExceptions() throws Exception {
+    Queue queue = session.createQueue("TEST.RUNNER.FAILING");
+    TracingMessageProducer producer =
+        new TracingMessageProducer(session.createProducer(queue), mockTracer);
+
+    final IllegalStateException failure = new IllegalStateException("failed");
+    final AtomicReference<JMSException> reported = new AtomicReference<>();
+    final CountDownLatch notified = new CountDownLatch(1);
+    TracingConsumerRunner runner = new TracingConsumerRunner(connection, mockTracer, queue, 1,
+        Session.AUTO_ACKNOWLEDGE, new MessageListener() {
+          @Override
+          public void onMessage(Message message) {
+            throw failure;
+          }
+        }, TracingConsumerRunner.virtualThreads(), exception -> {
+          reported.set(exception);
+          notified.countDown();
+        });
+    runner.start();
+    producer.send(session.createTextMessage("failing"));
+
+    assertTrue(notified.await(15, TimeUnit.SECONDS));
+    assertTrue(runner.stop(15, TimeUnit.SECONDS));
+    assertSame(failure, reported.get().getLinkedException());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void orderedListenerRejectsTransactedSessions() {
+    new OrderedTracingMessageListener(message -> {
+    }, mockTracer, false, null, Session.SESSION_TRANSACTED, 1, 1,
+        OrderedTracingMessageListener.GROUP_ID_PROPERTY,
+        OrderedTracingMessageListener.laneThreads());
+  }
+
+  @Test
+  public void orderedListenerKeepsOrderPerGroup() throws Exception {
+    Queue queue = session.createQueue("TEST.ORDERED");
+    TracingMessageProducer producer =
+        new TracingMessageProducer(session.createProducer(queue), mockTracer);
+    TracingMessageConsumer consumer =
+        new TracingMessageConsumer(session.createConsumer(queue), mockTracer);
+
+    final int messages = 30;
+    final CountDownLatch processed = new CountDownLatch(messages);
+    final Map<String, List<Integer>> received = new ConcurrentHashMap<>();
+    final List<MockSpan> activeSpans = new CopyOnWriteArrayList<>();
+    OrderedTracingMessageListener listener = new OrderedTracingMessageListener(
+        new MessageListener() {
+          @Override
+          public void onMessage(Message message) {
+            try {
+              received.computeIfAbsent(message.getStringProperty("JMSXGroupID"),
+                  group -> new CopyOnWriteArrayList<>()).add(message.getIntProperty("seq"));
+            } catch (JMSException e) {
+              throw new IllegalStateException(e);
+            }
+            activeSpans.add((MockSpan) mockTracer.activeSpan());
+            processed.countDown();
+          }
+        }, mockTracer, 4, 8);
+    consumer.setMessageListener(listener);
+
+    for (int i = 0; i < messages; i++) {
+      TextMessage message = session.createTextMessage("message " + i);
+      message.setStringProperty("JMSXGroupID", "group-" + i % 3);
+      message.setIntProperty("seq", i);
+      producer.send(message);
+    }
+
+    assertTrue(processed.await(15, TimeUnit.SECONDS));
+    listener.close();
+    assertTrue(listener.awaitTermination(15, TimeUnit.SECONDS));
+
+    assertEquals(3, received.size());
+    for (List<Integer> sequence : received.values()) {
+      assertEquals(messages / 3, sequence.size());
+      for (int i = 1; i < sequence.size(); i++) {
+        assertTrue(sequence.get(i - 1) < sequence.get(i));
+      }
+    }
+    for (MockSpan span : activeSpans) {
+      assertNotNull(span);
+    }
+    await().atMost(15, TimeUnit.SECONDS).until(reportedSpansSize(), equalTo(2 * messages));
+  }
+
+  @Test
+  public void publisherReceivesOnlyRequestedMessages() throws Exception {
+    Queue queue = jmsContext.createQueue("TEST.PUBLISHER");
+    TracingJMSContext context = new TracingJMSContext(jmsContext, mockTracer);
+    for (int i = 0; i < 5; i++) {
+      jmsContext.createProducer().send(queue, "message " + i);
+    }
+
+    final List<MockSpan> activeSpans = new CopyOnWriteArrayList<>();
+    final AtomicReference<Flow.Subscription> subscription = new AtomicReference<>();
+    context.createPublisher(queue).subscribe(new Flow.Subscriber<Message>() {
+      @Override
+      public void onSubscribe(Flow.Subscription s) {
+        subscription.set(s);
+        s.request(2);
+      }
+
+      @Override
+      public void onNext(Message item) {
+        activeSpans.add((MockSpan) mockTracer.activeSpan());
+      }
+
+      @Override
+      public void onError(Throwable throwable) {
+      }
+
+      @Override
+      public void onComplete() {
+      }
+    });
+
+    await().atMost(15, TimeUnit.SECONDS).until(reportedSpansSize(), equalTo(2));
+    Thread.sleep(200);
+    assertEquals(2, activeSpans.size());
+
+    subscription.get().request(3);
+    await().atMost(15, TimeUnit.SECONDS).until(reportedSpansSize(), equalTo(5));
+    subscription.get().cancel();
+
+    for (MockSpan span : activeSpans) {
+      assertNotNull(span);
+      assertEquals(Tags.SPAN_KIND_CONSUMER, span.tags().get(Tags.SPAN_KIND.getKey()));
+    }
+  }
+
+  @Test
+  public void publisherSignalsAfterOnSubscribeAndCommits() throws Exception {
+    Queue queue = jmsContext.createQueue("TEST.PUBLISHER.TRANSACTED");
+    JMSContext transacted = jmsContext.createContext(JMSContext.SESSION_TRANSACTED);
+    TracingJMSContext context = new TracingJMSContext(transacted, mockTracer);
+    for (int i = 0; i < 2; i++) {
+      jmsContext.createProducer().send(queue, "message " + i);
+    }
+
+    final AtomicBoolean inOnSubscribe = new AtomicBoolean();
+    final List<Boolean> reentrant = new CopyOnWriteArrayList<>();
+    final AtomicReference<Flow.Subscription> subscription = new AtomicReference<>();
+    // a direct executor drains on the subscribing thread
+    context.createPublisher(queue, null, Runnable::run).subscribe(new Flow.Subscriber<Message>() {
+      @Override
+      public void onSubscribe(Flow.Subscription s) {
+        inOnSubscribe.set(true);
+        subscription.set(s);
+        s.request(2);
+        inOnSubscribe.set(false);
+      }
+
+      @Override
+      public void onNext(Message item) {
+        reentrant.add(inOnSubscribe.get());
+      }
+
+      @Override
+      public void onError(Throwable throwable) {
+      }
+
+      @Override
+      public void onComplete() {
+      }
+    });
+    subscription.get().cancel();
+    transacted.close();
+
+    assertEquals(Arrays.asList(false, false), reentrant);
+    try (JMSConsumer consumer = jmsContext.createConsumer(queue)) {
+      assertNull(consumer.receive(200));
+    }
+  }
+
+  @Test
+  public void publisherCountsFailingSubscriberOnce() throws Exception {
+    Queue queue = jmsContext.createQueue("TEST.PUBLISHER.FAILING");
+    TracingJMSContext context = new TracingJMSContext(jmsContext, mockTracer);
+    jmsContext.createProducer().send(queue, "failing");
+
+    final CountDownLatch delivered = new CountDownLatch(1);
+    JmsMetrics.setEnabled(true);
+    try {
+      context.createPublisher(queue).subscribe(new Flow.Subscriber<Message>() {
+        @Override
+        public void onSubscribe(Flow.Subscription s) {
+          s.request(1);
+        }
+
+        @Override
+        public void onNext(Message item) {
+          delivered.countDown();
+          throw new IllegalStateException("failed");
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+      });
+      assertTrue(delivered.await(15, TimeUnit.SECONDS));
+      await().atMost(15, TimeUnit.SECONDS).until(reportedSpansSize(), equalTo(1));
+    } finally {
+      JmsMetrics.setEnabled(false);
+    }
+
+    DestinationCounters.Snapshot snapshot =
+        JmsMetrics.counters().snapshot().get("queue://TEST.PUBLISHER.FAILING");
+    assertEquals(0, snapshot.getReceives());
+    assertEquals(1, snapshot.getListenerInvocations());
+    assertEquals(1, snapshot.getErrors());
+  }
+
   private void checkSpans(List<MockSpan> mockSpans) {
     for (MockSpan mockSpan : mockSpans) {
       assertTrue(mockSpan.tags().get(Tags.SPAN_KIND.getKey()).equals(Tags.SPAN_KIND_CONSUMER)
@@ -13,6 +13,10 @@
  */
 package io.opentracing.contrib.jakarta.jms;
 
+import io.opentracing.contrib.jms.common.DestinationCounters;
+import io.opentracing.contrib.jms.common.DestinationFilter;
+import io.opentracing.contrib.jms.common.JmsMetrics;
+import io.opentracing.contrib.jms.common.TracingMessageConsumer;
 import io.opentracing.contrib.jms.common.TracingMessageUtils;
 import io.opentracing.mock.MockSpan;
 import io.opentracing.mock.MockTracer;
@@ -28,6 +32,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import jakarta.jms.CompletionListener;
 import jakarta.jms.Connection;
 import jakarta.jms.ConnectionFactory;
 import jakarta.jms.Destination;
@@ -41,6 +46,7 @@ import jakarta.jms.Queue;
 import jakarta.jms.Session;
 import jakarta.jms.TextMessage;
 import java.io.File;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.concurrent.Callable;
@@ -50,7 +56,10 @@ import java.util.concurrent.TimeUnit;
 import static org.awaitility.Awaitility.await;
 import static org.hamcrest.core.IsEqual.equalTo;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class TracingArtemisViaConnectionFactoryTest {
@@ -135,6 +144,94 @@ public class TracingArtemisViaConnectionFactoryTest {
     assertNull(mockTracer.activeSpan());
   }
 
+  @Test
+  public void sendAsyncJMSProducer() throws Exception {
+    Destination destination = session.createQueue("TEST.ASYNC");
+    MessageConsumer consumer = session.createConsumer(destination);
+    final CountDownLatch completed = new CountDownLatch(1);
+    CompletionListener listener = new CompletionListener() {
+      @Override
+      public void onCompletion(Message message) {
+        completed.countDown();
+      }
+
+      @Override
+      public void onException(Message message, Exception exception) {
+      }
+    };
+    JMSProducer producer = jmsContext.createProducer().setAsync(listener);
+    assertSame(listener, producer.getAsync());
+
+    JmsMetrics.setEnabled(true);
+    try {
+      producer.send(destination, session.createTextMessage("Hello world"));
+      assertTrue(completed.await(15, TimeUnit.SECONDS));
+    } finally {
+      JmsMetrics.setEnabled(false);
+    }
+    assertEquals(1, JmsMetrics.ackLatency().snapshot().get("queue://TEST.ASYNC").getCount());
+    await().atMost(15, TimeUnit.SECONDS).until(reportedSpansSize(), equalTo(1));
+    assertEquals(Tags.SPAN_KIND_PRODUCER,
+        mockTracer.finishedSpans().get(0).tags().get(Tags.SPAN_KIND.getKey()));
+
+    TextMessage received = (TextMessage) consumer.receive(5000);
+    assertEquals("Hello world", received.getText());
+    List<MockSpan> mockSpans = mockTracer.finishedSpans();
+    assertEquals(2, mockSpans.size());
+    assertEquals(mockSpans.get(0).context().spanId(), mockSpans.get(1).parentId());
+    checkSpans(mockSpans);
+  }
+
+  @Test
+  public void sendBatchAsyncJMSProducer() throws Exception {
+    Destination destination = session.createQueue("TEST.ASYNC.BATCH");
+    final CountDownLatch completed = new CountDownLatch(2);
+    TracingJMSProducer producer = (TracingJMSProducer) jmsContext.createProducer();
+    producer.setAsync(new CompletionListener() {
+      @Override
+      public void onCompletion(Message message) {
+        completed.countDown();
+      }
+
+      @Override
+      public void onException(Message message, Exception exception) {
+      }
+    });
+
+    producer.sendBatch(destination,
+        Arrays.asList(session.createTextMessage("1"), session.createTextMessage("2")));
+    assertTrue(completed.await(15, TimeUnit.SECONDS));
+    await().atMost(15, TimeUnit.SECONDS).until(reportedSpansSize(), equalTo(1));
+    assertEquals(TracingMessageUtils.OPERATION_NAME_SEND_BATCH,
+        mockTracer.finishedSpans().get(0).operationName());
+  }
+
+  @Test
+  public void countersPerDestination() throws Exception {
+    Queue queue = session.createQueue("TEST.COUNTED");
+    MessageProducer producer = session.createProducer(queue);
+    MessageConsumer consumer = session.createConsumer(queue);
+
+    JmsMetrics.setEnabled(true);
+    try {
+      producer.send(session.createTextMessage("1"));
+      jmsContext.createProducer().send(queue, "2");
+      assertNotNull(consumer.receive(5000));
+      assertNotNull(consumer.receive(5000));
+      assertNull(consumer.receiveNoWait());
+    } finally {
+      JmsMetrics.setEnabled(false);
+    }
+
+    DestinationCounters.Snapshot snapshot =
+        JmsMetrics.counters().snapshot().get("queue://TEST.COUNTED");
+    assertEquals(2, snapshot.getSends());
+    assertEquals(2, snapshot.getReceives());
+    assertEquals(1, snapshot.getEmptyPolls());
+    assertEquals(0, snapshot.getErrors());
+    assertEquals(2, JmsMetrics.dwellTime().snapshot().get("queue://TEST.COUNTED").getCount());
+  }
+
   @Test
   public void sendAndReceiveInListener() throws Exception {
     Destination destination = session.createQueue("TEST.FOO");
@@ -165,6 +262,37 @@ public class TracingArtemisViaConnectionFactoryTest {
     assertNull(mockTracer.activeSpan());
   }
 
+  @Test
+  public void excludedDestinationIsNotTraced() throws Exception {
+    DestinationFilter filter = DestinationFilter.builder().exclude("TEST.EXCLUDED.*").build();
+    ConnectionFactory tracingConnectionFactory = new TracingConnectionFactory(
+        new ActiveMQJMSConnectionFactory("vm://0"), mockTracer,
+        TracingOptions.builder().destinationFilter(filter).build());
+    try (Connection filtered = tracingConnectionFactory.createConnection();
+        JMSContext filteredContext = tracingConnectionFactory.createContext()) {
+      filtered.start();
+      Session filteredSession = filtered.createSession(false, Session.AUTO_ACKNOWLEDGE);
+      Queue excluded = filteredSession.createQueue("TEST.EXCLUDED.FOO");
+
+      MessageProducer producer = filteredSession.createProducer(excluded);
+      MessageConsumer consumer = filteredSession.createConsumer(excluded);
+      assertFalse(producer instanceof TracingMessageProducer);
+      assertFalse(consumer instanceof TracingMessageConsumer);
+
+      producer.send(filteredSession.createTextMessage("Hello world"));
+      filteredContext.createProducer().send(excluded, "Hello again");
+      assertEquals("Hello world", ((TextMessage) consumer.receive(5000)).getText());
+      assertEquals("Hello again", ((TextMessage) consumer.receive(5000)).getText());
+      assertEquals(0, mockTracer.finishedSpans().size());
+
+      Queue traced = filteredSession.createQueue("TEST.INCLUDED.FOO");
+      filteredSession.createProducer(traced).send(filteredSession.createTextMessage("traced"));
+      assertEquals("traced",
+          ((TextMessage) filteredSession.createConsumer(traced).receive(5000)).getText());
+      assertEquals(2, mockTracer.finishedSpans().size());
+    }
+  }
+
   private void checkSpans(List<MockSpan> mockSpans) {
     for (MockSpan mockSpan : mockSpans) {
       assertTrue(mockSpan.tags().get(Tags.SPAN_KIND.getKey()).equals(Tags.SPAN_KIND_CONSUMER)
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.benchmarks;
+
+import jakarta.jms.Connection;
+import jakarta.jms.JMSContext;
+import jakarta.jms.JMSException;
+import jakarta.jms.Session;
+import java.io.File;
+import java.util.HashSet;
+import org.apache.activemq.artemis.api.core.TransportConfiguration;
+import org.apache.activemq.artemis.core.config.Configuration;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.remoting.impl.invm.InVMAcceptorFactory;
+import org.apache.activemq.artemis.core.server.ActiveMQServer;
+import org.apache.activemq.artemis.core.server.impl.ActiveMQServerImpl;
+import org.apache.activemq.artemis.jms.client.ActiveMQJMSConnectionFactory;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Embedded in-VM Artemis broker shared by all threads of a benchmark. Persistence is disabled so
+ * that the numbers reflect client-side costs rather than journal writes.
+ */
+@State(Scope.Benchmark)
+public class EmbeddedBroker {
+
+  private ActiveMQServer server;
+  private ActiveMQJMSConnectionFactory connectionFactory;
+  private Connection connection;
+
+  @Setup(Level.Trial)
+  public void start() throws Exception {
+    Configuration configuration = new ConfigurationImpl();
+
+    HashSet<TransportConfiguration> transports = new HashSet<>();
+    transports.add(new TransportConfiguration(InVMAcceptorFactory.class.getName()));
+    configuration.setAcceptorConfigurations(transports);
+    configuration.setSecurityEnabled(false);
+    configuration.setPersistenceEnabled(false);
+    configuration.setBrokerInstance(
+        new File(System.getProperty("java.io.tmpdir"), "opentracing-jms-benchmarks"));
+
+    server = new ActiveMQServerImpl(configuration);
+    server.start();
+
+    connectionFactory = new ActiveMQJMSConnectionFactory("vm://0");
+    connection = connectionFactory.createConnection();
+    connection.start();
+  }
+
+  @TearDown(Level.Trial)
+  public void stop() throws Exception {
+    connection.close();
+    connectionFactory.close();
+    server.stop();
+  }
+
+  Session createSession() throws JMSException {
+    return connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+  }
+
+  JMSContext createContext() {
+    return connectionFactory.createContext();
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.benchmarks;
+
+import io.opentracing.contrib.jakarta.jms.TracingJMSProducer;
+import jakarta.jms.DeliveryMode;
+import jakarta.jms.JMSContext;
+import jakarta.jms.JMSProducer;
+import jakarta.jms.Topic;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link JMSProducer#send(jakarta.jms.Destination, jakarta.jms.Message)} with the same
+ * call through {@link TracingJMSProducer}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class JMSProducerBenchmark {
+
+  @State(Scope.Thread)
+  public static class ContextState {
+
+    JMSContext context;
+    Topic topic;
+    JMSProducer producer;
+
+    @Setup(Level.Trial)
+    public void setup(EmbeddedBroker broker) {
+      context = broker.createContext();
+      topic = context.createTopic("benchmark.jms-producer");
+      producer = context.createProducer().setDeliveryMode(DeliveryMode.NON_PERSISTENT);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+      context.close();
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class TracingContextState {
+
+    @Param({Tracers.NOOP, Tracers.MOCK})
+    public String tracer;
+
+    ContextState state;
+    TracingJMSProducer producer;
+
+    @Setup(Level.Trial)
+    public void setup(ContextState state) {
+      this.state = state;
+      producer = new TracingJMSProducer(state.producer, state.context, Tracers.create(tracer));
+    }
+  }
+
+  @Benchmark
+  public void bare(ContextState state) {
+    state.producer.send(state.topic, state.context.createTextMessage(SessionState.BODY));
+  }
+
+  @Benchmark
+  public void traced(TracingContextState tracing) {
+    ContextState state = tracing.state;
+    tracing.producer.send(state.topic, state.context.createTextMessage(SessionState.BODY));
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.benchmarks;
+
+import io.opentracing.contrib.jms.spring.TracingMessagingMessageListenerAdapter;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.Session;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jms.listener.adapter.MessagingMessageListenerAdapter;
+import org.springframework.messaging.handler.annotation.support.DefaultMessageHandlerMethodFactory;
+
+/**
+ * Compares Spring's {@link MessagingMessageListenerAdapter}, which dispatches to {@code
+ * JmsListener} methods, with {@link TracingMessagingMessageListenerAdapter}. Run with {@code -prof
+ * gc}: the difference in allocation rate per operation is the cost of the span alone.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ListenerAdapterBenchmark {
+
+  @State(Scope.Thread)
+  public static class AdapterState {
+
+    final CountingEndpoint endpoint = new CountingEndpoint();
+    Session session;
+    Message message;
+    MessagingMessageListenerAdapter adapter;
+
+    @Setup(Level.Trial)
+    public void setup(SessionState state) throws Exception {
+      session = state.session;
+      message = session.createTextMessage(SessionState.BODY);
+      adapter = new MessagingMessageListenerAdapter();
+      bind(adapter, endpoint);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class TracingAdapterState {
+
+    @Param({Tracers.NOOP, Tracers.MOCK})
+    public String tracer;
+
+    AdapterState state;
+    TracingMessagingMessageListenerAdapter adapter;
+
+    @Setup(Level.Trial)
+    public void setup(AdapterState state) throws Exception {
+      this.state = state;
+      adapter = new TracingMessagingMessageListenerAdapter(Tracers.create(tracer)) {
+      };
+      bind(adapter, state.endpoint);
+    }
+  }
+
+  @Benchmark
+  public long bare(AdapterState state) throws JMSException {
+    state.adapter.onMessage(state.message, state.session);
+    return state.endpoint.count;
+  }
+
+  @Benchmark
+  public long traced(TracingAdapterState tracing) throws JMSException {
+    tracing.adapter.onMessage(tracing.state.message, tracing.state.session);
+    return tracing.state.endpoint.count;
+  }
+
+  static void bind(MessagingMessageListenerAdapter adapter, CountingEndpoint endpoint)
+      throws NoSuchMethodException {
+    DefaultMessageHandlerMethodFactory factory = new DefaultMessageHandlerMethodFactory();
+    factory.afterPropertiesSet();
+    adapter.setHandlerMethod(factory.createInvocableHandlerMethod(endpoint,
+        CountingEndpoint.class.getMethod("onMessage", String.class)));
+  }
+
+  public static class CountingEndpoint {
+
+    long count;
+
+    public void onMessage(String body) {
+      count++;
+    }
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.benchmarks;
+
+import io.opentracing.contrib.jms.common.TracingMessageConsumer;
+import jakarta.jms.DeliveryMode;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Queue;
+import jakarta.jms.Session;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link MessageConsumer#receive(long)} with the same call through {@link
+ * TracingMessageConsumer}. Every operation sends one message with a plain producer and receives it
+ * back from a per-thread temporary queue, so the difference between both benchmarks is the cost of
+ * the consumer instrumentation.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MessageConsumerBenchmark {
+
+  private static final long RECEIVE_TIMEOUT = 1000;
+
+  @State(Scope.Thread)
+  public static class ConsumerState {
+
+    Session session;
+    MessageProducer producer;
+    MessageConsumer consumer;
+
+    @Setup(Level.Trial)
+    public void setup(SessionState state) throws JMSException {
+      session = state.session;
+      Queue queue = session.createTemporaryQueue();
+      producer = session.createProducer(queue);
+      producer.setDeliveryMode(DeliveryMode.NON_PERSISTENT);
+      consumer = session.createConsumer(queue);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class TracingConsumerState {
+
+    @Param({Tracers.NOOP, Tracers.MOCK})
+    public String tracer;
+
+    ConsumerState state;
+    TracingMessageConsumer consumer;
+
+    @Setup(Level.Trial)
+    public void setup(ConsumerState state) {
+      this.state = state;
+      consumer = new TracingMessageConsumer(state.consumer, Tracers.create(tracer));
+    }
+  }
+
+  @Benchmark
+  public Message bare(ConsumerState state) throws JMSException {
+    state.producer.send(state.session.createTextMessage(SessionState.BODY));
+    return state.consumer.receive(RECEIVE_TIMEOUT);
+  }
+
+  @Benchmark
+  public Message traced(TracingConsumerState tracing) throws JMSException {
+    tracing.state.producer.send(tracing.state.session.createTextMessage(SessionState.BODY));
+    return tracing.consumer.receive(RECEIVE_TIMEOUT);
+  }
+}
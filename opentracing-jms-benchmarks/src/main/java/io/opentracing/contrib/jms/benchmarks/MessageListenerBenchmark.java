@@ -0,0 +1,95 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.benchmarks;
+
+import io.opentracing.contrib.jms.common.TracingMessageListener;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageListener;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares a plain {@link MessageListener#onMessage(Message)} with the same call through {@link
+ * TracingMessageListener}. The listener is invoked directly with an Artemis message, which isolates
+ * the instrumentation from delivery costs.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MessageListenerBenchmark {
+
+  @State(Scope.Thread)
+  public static class ListenerState {
+
+    final CountingListener listener = new CountingListener();
+    Message message;
+
+    @Setup(Level.Trial)
+    public void setup(SessionState state) throws JMSException {
+      message = state.session.createTextMessage(SessionState.BODY);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class TracingListenerState {
+
+    @Param({Tracers.NOOP, Tracers.MOCK})
+    public String tracer;
+
+    ListenerState state;
+    TracingMessageListener listener;
+
+    @Setup(Level.Trial)
+    public void setup(ListenerState state) {
+      this.state = state;
+      listener = new TracingMessageListener(state.listener, Tracers.create(tracer));
+    }
+  }
+
+  @Benchmark
+  public long bare(ListenerState state) {
+    state.listener.onMessage(state.message);
+    return state.listener.count;
+  }
+
+  @Benchmark
+  public long traced(TracingListenerState tracing) {
+    tracing.listener.onMessage(tracing.state.message);
+    return tracing.state.listener.count;
+  }
+
+  static class CountingListener implements MessageListener {
+
+    long count;
+
+    @Override
+    public void onMessage(Message message) {
+      count++;
+    }
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.benchmarks;
+
+import io.opentracing.contrib.jakarta.jms.TracingMessageProducer;
+import jakarta.jms.DeliveryMode;
+import jakarta.jms.JMSException;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Session;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link MessageProducer#send(jakarta.jms.Message)} with the same call through {@link
+ * TracingMessageProducer}. Messages go to a topic without subscribers, so the broker drops them
+ * once routed.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MessageProducerBenchmark {
+
+  @State(Scope.Thread)
+  public static class ProducerState {
+
+    Session session;
+    MessageProducer producer;
+
+    @Setup(Level.Trial)
+    public void setup(SessionState state) throws JMSException {
+      session = state.session;
+      producer = session.createProducer(session.createTopic("benchmark.producer"));
+      producer.setDeliveryMode(DeliveryMode.NON_PERSISTENT);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class TracingProducerState {
+
+    @Param({Tracers.NOOP, Tracers.MOCK})
+    public String tracer;
+
+    ProducerState state;
+    TracingMessageProducer producer;
+
+    @Setup(Level.Trial)
+    public void setup(ProducerState state) {
+      this.state = state;
+      producer = new TracingMessageProducer(state.producer, Tracers.create(tracer));
+    }
+  }
+
+  @Benchmark
+  public void bare(ProducerState state) throws JMSException {
+    state.producer.send(state.session.createTextMessage(SessionState.BODY));
+  }
+
+  @Benchmark
+  public void traced(TracingProducerState tracing) throws JMSException {
+    tracing.producer.send(tracing.state.session.createTextMessage(SessionState.BODY));
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.benchmarks;
+
+import io.opentracing.contrib.jms.common.JmsTextMapExtractAdapter;
+import io.opentracing.contrib.jms.common.JmsTextMapInjectAdapter;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the cached {@code __dash__} property name encoding of {@link JmsTextMapInjectAdapter}
+ * and {@link JmsTextMapExtractAdapter} with converting every name by {@link String#replace}, with
+ * several producer threads working concurrently.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(4)
+public class PropertyNameEncodingBenchmark {
+
+  private static final String DASH = "__dash__";
+  private static final String[] HEADERS = {"uber-trace-id", "uberctx-tenant-id", "x-b3-traceid",
+      "x-b3-spanid", "x-b3-parentspanid", "x-b3-sampled"};
+
+  @State(Scope.Thread)
+  public static class MessageState {
+
+    Message message;
+
+    @Setup(Level.Trial)
+    public void setup(SessionState state) throws JMSException {
+      message = state.session.createTextMessage(SessionState.BODY);
+      new JmsTextMapInjectAdapter(message).put("business-property", "value");
+      for (String header : HEADERS) {
+        new JmsTextMapInjectAdapter(message).put(header, "value");
+      }
+    }
+  }
+
+  @Benchmark
+  public void replaceInject(MessageState state) throws JMSException {
+    for (String header : HEADERS) {
+      state.message.setStringProperty(header.replace("-", DASH), "value");
+    }
+  }
+
+  @Benchmark
+  public void cachedInject(MessageState state) {
+    JmsTextMapInjectAdapter adapter = new JmsTextMapInjectAdapter(state.message);
+    for (String header : HEADERS) {
+      adapter.put(header, "value");
+    }
+  }
+
+  @Benchmark
+  public void replaceExtract(MessageState state, Blackhole blackhole) throws JMSException {
+    Enumeration<?> names = state.message.getPropertyNames();
+    while (names.hasMoreElements()) {
+      String name = (String) names.nextElement();
+      Object value = state.message.getObjectProperty(name);
+      if (value instanceof String) {
+        blackhole.consume(name.replace(DASH, "-"));
+        blackhole.consume(value);
+      }
+    }
+  }
+
+  @Benchmark
+  public void cachedExtract(MessageState state, Blackhole blackhole) {
+    Iterator<Map.Entry<String, String>> iterator =
+        new JmsTextMapExtractAdapter(state.message).iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<String, String> entry = iterator.next();
+      blackhole.consume(entry.getKey());
+      blackhole.consume(entry.getValue());
+    }
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.benchmarks;
+
+import io.opentracing.SpanContext;
+import io.opentracing.contrib.jms.common.SpanContextContainer;
+import io.opentracing.contrib.jms.common.TracingMessageConsumer;
+import io.opentracing.contrib.jms.common.TracingMessageUtils;
+import io.opentracing.noop.NoopTracerFactory;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.MessageListener;
+import jakarta.jms.TextMessage;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares reading a message received through {@link TracingMessageConsumer} with {@code
+ * proxyMessage} enabled against the former {@link Proxy} based wrapping. The consumer returns the
+ * same in-memory message on every call, so the broker is not part of the measurement and the
+ * difference is the cost of wrapping plus {@code reads} accessor calls.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ReceivedMessageBenchmark {
+
+  @State(Scope.Thread)
+  public static class ConsumerState {
+
+    @Param({"1", "16"})
+    public int reads;
+
+    TracingMessageConsumer plainConsumer;
+    TracingMessageConsumer wrappingConsumer;
+
+    @Setup(Level.Trial)
+    public void setup(SessionState state) throws JMSException {
+      TextMessage message = state.session.createTextMessage(SessionState.BODY);
+      message.setStringProperty("tenant", "benchmark");
+      MessageConsumer consumer = new FixedMessageConsumer(message);
+      plainConsumer = new TracingMessageConsumer(consumer, NoopTracerFactory.create());
+      wrappingConsumer = new TracingMessageConsumer(consumer, NoopTracerFactory.create(), true);
+    }
+  }
+
+  @Benchmark
+  public void reflectiveProxy(ConsumerState state, Blackhole blackhole) throws JMSException {
+    Message received = state.plainConsumer.receiveNoWait();
+    SpanContext context = TracingMessageUtils.extract(received, NoopTracerFactory.create());
+    read((TextMessage) reflectiveProxy(received, context), state.reads, blackhole);
+  }
+
+  @Benchmark
+  public void typedWrapper(ConsumerState state, Blackhole blackhole) throws JMSException {
+    read((TextMessage) state.wrappingConsumer.receiveNoWait(), state.reads, blackhole);
+  }
+
+  private static void read(TextMessage message, int reads, Blackhole blackhole)
+      throws JMSException {
+    blackhole.consume(((SpanContextContainer) message).getSpanContext());
+    for (int i = 0; i < reads; i++) {
+      blackhole.consume(message.getText());
+      blackhole.consume(message.getStringProperty("tenant"));
+    }
+  }
+
+  /**
+   * The wrapping {@link TracingMessageConsumer} used before typed wrappers were introduced.
+   */
+  private static Message reflectiveProxy(final Message message, final SpanContext spanContext) {
+    final Class<?>[] interfaces = message.getClass().getInterfaces();
+    Class<?>[] allInterfaces = new Class<?>[interfaces.length + 1];
+    System.arraycopy(interfaces, 0, allInterfaces, 0, interfaces.length);
+    allInterfaces[interfaces.length] = SpanContextContainer.class;
+
+    return (Message) Proxy.newProxyInstance(message.getClass().getClassLoader(), allInterfaces,
+        (proxy, method, args) -> {
+          if (method.getName().equals("getSpanContext")) {
+            return spanContext;
+          }
+          return method.invoke(message, args);
+        });
+  }
+
+  private static class FixedMessageConsumer implements MessageConsumer {
+
+    private final Message message;
+
+    FixedMessageConsumer(Message message) {
+      this.message = message;
+    }
+
+    @Override
+    public String getMessageSelector() {
+      return null;
+    }
+
+    @Override
+    public MessageListener getMessageListener() {
+      return null;
+    }
+
+    @Override
+    public void setMessageListener(MessageListener listener) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Message receive() {
+      return message;
+    }
+
+    @Override
+    public Message receive(long timeout) {
+      return message;
+    }
+
+    @Override
+    public Message receiveNoWait() {
+      return message;
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
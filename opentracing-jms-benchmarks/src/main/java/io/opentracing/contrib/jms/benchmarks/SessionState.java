@@ -0,0 +1,43 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.benchmarks;
+
+import jakarta.jms.JMSException;
+import jakarta.jms.Session;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * JMS session owned by a single benchmark thread.
+ */
+@State(Scope.Thread)
+public class SessionState {
+
+  static final String BODY = "Hello world";
+
+  Session session;
+
+  @Setup(Level.Trial)
+  public void open(EmbeddedBroker broker) throws JMSException {
+    session = broker.createSession();
+  }
+
+  @TearDown(Level.Trial)
+  public void close() throws JMSException {
+    session.close();
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.benchmarks;
+
+import io.opentracing.Tracer;
+import io.opentracing.mock.MockSpan;
+import io.opentracing.mock.MockTracer;
+import io.opentracing.noop.NoopTracerFactory;
+
+/**
+ * Tracers the instrumented benchmarks are parameterized with.
+ */
+final class Tracers {
+
+  static final String NOOP = "noop";
+  static final String MOCK = "mock";
+
+  private Tracers() {
+  }
+
+  static Tracer create(String name) {
+    switch (name) {
+      case NOOP:
+        return NoopTracerFactory.create();
+      case MOCK:
+        return new DiscardingMockTracer();
+      default:
+        throw new IllegalArgumentException("Unknown tracer: " + name);
+    }
+  }
+
+  /**
+   * {@link MockTracer} which does not keep finished spans, so that long runs do not measure the
+   * growth of its span list.
+   */
+  private static class DiscardingMockTracer extends MockTracer {
+
+    @Override
+    protected void onSpanFinished(MockSpan mockSpan) {
+      reset();
+    }
+  }
+}
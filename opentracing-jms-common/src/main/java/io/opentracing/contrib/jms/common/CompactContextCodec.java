@@ -0,0 +1,114 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.common;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Packs all headers of a span context into the single string property {@link
+ * TracingMessageUtils#CONTEXT_PROPERTY} as {@code key=value} pairs separated by {@code &}. The
+ * characters {@code %}, {@code &} and {@code =} are percent-encoded in keys and values.
+ */
+final class CompactContextCodec {
+
+  private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+  private CompactContextCodec() {
+  }
+
+  static void append(StringBuilder encoded, String key, String value) {
+    if (encoded.length() > 0) {
+      encoded.append('&');
+    }
+    escape(encoded, key);
+    encoded.append('=');
+    escape(encoded, value);
+  }
+
+  /**
+   * @return the UTF-8 size of the pair as appended, without the separator
+   */
+  static int sizeOf(String key, String value) {
+    return HeaderBudget.sizeOf(key, value) + 1 + 2 * (escapes(key) + escapes(value));
+  }
+
+  static Map<String, String> decode(String encoded) {
+    if (encoded == null || encoded.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    Map<String, String> headers = new LinkedHashMap<>(8);
+    int start = 0;
+    while (start <= encoded.length()) {
+      int end = encoded.indexOf('&', start);
+      if (end < 0) {
+        end = encoded.length();
+      }
+      int separator = encoded.indexOf('=', start);
+      if (separator > start && separator < end) {
+        headers.put(unescape(encoded, start, separator), unescape(encoded, separator + 1, end));
+      }
+      start = end + 1;
+    }
+    return headers;
+  }
+
+  private static void escape(StringBuilder encoded, String value) {
+    if (value == null) {
+      return;
+    }
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '%' || c == '&' || c == '=') {
+        encoded.append('%').append(HEX[c >> 4]).append(HEX[c & 0xF]);
+      } else {
+        encoded.append(c);
+      }
+    }
+  }
+
+  private static int escapes(String value) {
+    int escapes = 0;
+    if (value != null) {
+      for (int i = 0; i < value.length(); i++) {
+        char c = value.charAt(i);
+        if (c == '%' || c == '&' || c == '=') {
+          escapes++;
+        }
+      }
+    }
+    return escapes;
+  }
+
+  private static String unescape(String encoded, int start, int end) {
+    int escape = encoded.indexOf('%', start);
+    if (escape < 0 || escape >= end) {
+      return encoded.substring(start, end);
+    }
+    StringBuilder value = new StringBuilder(end - start);
+    for (int i = start; i < end; i++) {
+      char c = encoded.charAt(i);
+      int high = c == '%' && i + 2 < end ? Character.digit(encoded.charAt(i + 1), 16) : -1;
+      int low = high >= 0 ? Character.digit(encoded.charAt(i + 2), 16) : -1;
+      if (low >= 0) {
+        value.append((char) (high << 4 | low));
+        i += 2;
+      } else {
+        value.append(c);
+      }
+    }
+    return value.toString();
+  }
+}
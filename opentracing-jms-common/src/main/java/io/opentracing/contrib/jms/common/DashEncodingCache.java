@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.common;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Bounded cache of header names and their {@code __dash__} encoded property names, shared by
+ * {@link JmsTextMapInjectAdapter} and {@link JmsTextMapExtractAdapter}.
+ * <p>
+ * Names written by the tracer on inject, {@link PropagationKeys} and the headers of common
+ * tracers, seeded up front for consumer-only processes, are kept in the shared cache, up to {@link
+ * #MAX_SIZE} names. Extraction without propagation keys offers every property of the message to
+ * the tracer: application property names are decoded through a separate cache of {@link
+ * #MAX_APPLICATION_SIZE} names, so that a producer with many property names cannot displace the
+ * tracer headers. Once it is full, further names are decoded on every lookup.
+ */
+final class DashEncodingCache {
+
+  static final int MAX_SIZE = 1024;
+  static final int MAX_APPLICATION_SIZE = 256;
+
+  private static final String[] TRACER_KEYS = {
+      "uber-trace-id", "x-b3-traceid", "x-b3-spanid", "x-b3-parentspanid", "x-b3-sampled",
+      "x-b3-flags", "ot-tracer-traceid", "ot-tracer-spanid", "ot-tracer-sampled",
+      "x-datadog-trace-id", "x-datadog-parent-id", "x-datadog-sampling-priority"
+  };
+
+  private static final ConcurrentMap<String, String> ENCODED = new ConcurrentHashMap<>();
+  private static final ConcurrentMap<String, String> DECODED = new ConcurrentHashMap<>();
+  private static final ConcurrentMap<String, String> APPLICATION_DECODED =
+      new ConcurrentHashMap<>();
+
+  static {
+    for (String key : TRACER_KEYS) {
+      encode(key);
+    }
+  }
+
+  private DashEncodingCache() {
+  }
+
+  static String encode(String key) {
+    String propertyName = ENCODED.get(key);
+    if (propertyName == null) {
+      propertyName = key.replace("-", JmsTextMapInjectAdapter.DASH);
+      remember(key, propertyName);
+    }
+    return propertyName;
+  }
+
+  static String decode(String propertyName) {
+    String key = DECODED.get(propertyName);
+    if (key != null) {
+      return key;
+    }
+    key = APPLICATION_DECODED.get(propertyName);
+    if (key != null) {
+      return key;
+    }
+    key = propertyName.replace(JmsTextMapInjectAdapter.DASH, "-");
+    if (APPLICATION_DECODED.size() < MAX_APPLICATION_SIZE) {
+      APPLICATION_DECODED.putIfAbsent(propertyName, key);
+    }
+    return key;
+  }
+
+  private static void remember(String key, String propertyName) {
+    if (DECODED.size() < MAX_SIZE) {
+      ENCODED.putIfAbsent(key, propertyName);
+      DECODED.putIfAbsent(propertyName, key);
+    }
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.common;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Message counters per destination, indexed by the interned destination id. A queue and a topic
+ * of the same name are counted separately. Each destination has its own {@link LongAdder} per
+ * counter, so concurrent updates are striped instead of contending on one value.
+ * <p>
+ * Counts are recorded by the tracing decorators only. Destinations excluded by a {@link
+ * DestinationFilter} get undecorated producers and consumers, so they are not counted.
+ */
+public final class DestinationCounters {
+
+  private final AtomicReferenceArray<Counters> counters =
+      new AtomicReferenceArray<>(DestinationIds.MAX_IDS);
+
+  public void send(DestinationMetadata destination, int count) {
+    counters(destination).sends.add(count);
+  }
+
+  public void receive(DestinationMetadata destination) {
+    counters(destination).receives.increment();
+  }
+
+  public void emptyPoll(DestinationMetadata destination) {
+    counters(destination).emptyPolls.increment();
+  }
+
+  public void listenerInvocation(DestinationMetadata destination) {
+    counters(destination).listenerInvocations.increment();
+  }
+
+  public void error(DestinationMetadata destination) {
+    counters(destination).errors.increment();
+  }
+
+  public void droppedBaggage(DestinationMetadata destination, int count) {
+    counters(destination).droppedBaggage.add(count);
+  }
+
+  /**
+   * @return snapshots of the destinations with counted operations keyed by destination kind and
+   * name, e.g. {@code queue://orders}, with all temporary destinations under {@code temporary}
+   */
+  public Map<String, Snapshot> snapshot() {
+    Map<String, Snapshot> snapshots = new LinkedHashMap<>();
+    for (int id = 0; id < DestinationIds.size(); id++) {
+      Counters destinationCounters = counters.get(id);
+      if (destinationCounters != null) {
+        snapshots.put(DestinationIds.nameOf(id), destinationCounters.snapshot());
+      }
+    }
+    return Collections.unmodifiableMap(snapshots);
+  }
+
+  private Counters counters(DestinationMetadata destination) {
+    int id = destination != null ? destination.id() : DestinationIds.OTHER;
+    Counters destinationCounters = counters.get(id);
+    if (destinationCounters == null) {
+      counters.compareAndSet(id, null, new Counters());
+      destinationCounters = counters.get(id);
+    }
+    return destinationCounters;
+  }
+
+  private static final class Counters {
+
+    final LongAdder sends = new LongAdder();
+    final LongAdder receives = new LongAdder();
+    final LongAdder emptyPolls = new LongAdder();
+    final LongAdder listenerInvocations = new LongAdder();
+    final LongAdder errors = new LongAdder();
+    final LongAdder droppedBaggage = new LongAdder();
+
+    Snapshot snapshot() {
+      return new Snapshot(sends.sum(), receives.sum(), emptyPolls.sum(),
+          listenerInvocations.sum(), errors.sum(), droppedBaggage.sum());
+    }
+  }
+
+  /**
+   * Point-in-time values of the counters of one destination.
+   */
+  public static final class Snapshot {
+
+    private final long sends;
+    private final long receives;
+    private final long emptyPolls;
+    private final long listenerInvocations;
+    private final long errors;
+    private final long droppedBaggage;
+
+    private Snapshot(long sends, long receives, long emptyPolls, long listenerInvocations,
+        long errors, long droppedBaggage) {
+      this.sends = sends;
+      this.receives = receives;
+      this.emptyPolls = emptyPolls;
+      this.listenerInvocations = listenerInvocations;
+      this.errors = errors;
+      this.droppedBaggage = droppedBaggage;
+    }
+
+    public long getSends() {
+      return sends;
+    }
+
+    public long getReceives() {
+      return receives;
+    }
+
+    /**
+     * @return receive calls which returned no message
+     */
+    public long getEmptyPolls() {
+      return emptyPolls;
+    }
+
+    public long getListenerInvocations() {
+      return listenerInvocations;
+    }
+
+    /**
+     * @return failed sends and listener invocations which threw an exception
+     */
+    public long getErrors() {
+      return errors;
+    }
+
+    /**
+     * @return baggage items not injected because of the {@link HeaderBudget}
+     */
+    public long getDroppedBaggage() {
+      return droppedBaggage;
+    }
+
+    @Override
+    public String toString() {
+      return "sends=" + sends + ", receives=" + receives + ", emptyPolls=" + emptyPolls
+          + ", listenerInvocations=" + listenerInvocations + ", errors=" + errors
+          + ", droppedBaggage=" + droppedBaggage;
+    }
+  }
+}
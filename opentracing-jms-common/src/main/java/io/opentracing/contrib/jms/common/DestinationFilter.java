@@ -0,0 +1,196 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.common;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+import jakarta.jms.Destination;
+
+/**
+ * Decides which destinations are traced. Destinations are matched by the name resolved in {@link
+ * DestinationMetadata}.
+ * <p>
+ * Patterns are exact names ({@code heartbeat}), prefixes ({@code cache.*}) or wildcards where
+ * {@code *} matches any sequence of characters and {@code ?} a single character ({@code
+ * orders.*.eu}). A destination is traced if it matches no exclude pattern and, when include
+ * patterns are given, at least one include pattern. Decisions are cached per kind and name.
+ */
+public final class DestinationFilter {
+
+  /**
+   * Filter which traces all destinations.
+   */
+  public static final DestinationFilter ALL = new Builder().build();
+
+  static final int MAX_CACHED_DECISIONS = 4096;
+
+  private final NameMatcher includes;
+  private final NameMatcher excludes;
+  private final ConcurrentMap<String, Boolean> decisions = new ConcurrentHashMap<>();
+
+  private DestinationFilter(Builder builder) {
+    this.includes = builder.includes.isEmpty() ? null : new NameMatcher(builder.includes);
+    this.excludes = builder.excludes.isEmpty() ? null : new NameMatcher(builder.excludes);
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * @param destination the destination
+   * @return {@code true} if operations on the destination are traced
+   */
+  public boolean isTraced(Destination destination) {
+    if (this == ALL) {
+      return true;
+    }
+    return isTraced(DestinationMetadata.of(destination));
+  }
+
+  /**
+   * @param destination the resolved destination metadata
+   * @return {@code true} if operations on the destination are traced
+   */
+  public boolean isTraced(DestinationMetadata destination) {
+    if (destination == null || this == ALL) {
+      return true;
+    }
+    String key = destination.key();
+    Boolean traced = decisions.get(key);
+    if (traced == null) {
+      traced = matches(destination.getName());
+      if (decisions.size() < MAX_CACHED_DECISIONS) {
+        decisions.put(key, traced);
+      }
+    }
+    return traced;
+  }
+
+  private boolean matches(String name) {
+    if (excludes != null && excludes.matches(name)) {
+      return false;
+    }
+    return includes == null || includes.matches(name);
+  }
+
+  public static final class Builder {
+
+    private final List<String> includes = new ArrayList<>();
+    private final List<String> excludes = new ArrayList<>();
+
+    private Builder() {
+    }
+
+    /**
+     * Trace only destinations matching one of the patterns.
+     *
+     * @param patterns exact names, prefixes or wildcards
+     * @return this builder
+     */
+    public Builder include(String... patterns) {
+      includes.addAll(Arrays.asList(patterns));
+      return this;
+    }
+
+    /**
+     * Do not trace destinations matching one of the patterns.
+     *
+     * @param patterns exact names, prefixes or wildcards
+     * @return this builder
+     */
+    public Builder exclude(String... patterns) {
+      excludes.addAll(Arrays.asList(patterns));
+      return this;
+    }
+
+    public DestinationFilter build() {
+      return new DestinationFilter(this);
+    }
+  }
+
+  private static final class NameMatcher {
+
+    private final Set<String> names = new HashSet<>();
+    private final String[] prefixes;
+    private final Pattern wildcards;
+
+    NameMatcher(List<String> patterns) {
+      List<String> prefixList = new ArrayList<>();
+      List<String> wildcardList = new ArrayList<>();
+      for (String pattern : patterns) {
+        int wildcard = indexOfWildcard(pattern);
+        if (wildcard < 0) {
+          names.add(pattern);
+        } else if (wildcard == pattern.length() - 1 && pattern.charAt(wildcard) == '*') {
+          prefixList.add(pattern.substring(0, wildcard));
+        } else {
+          wildcardList.add(toRegex(pattern));
+        }
+      }
+      Collections.sort(prefixList);
+      this.prefixes = prefixList.toArray(new String[0]);
+      this.wildcards = wildcardList.isEmpty() ? null
+          : Pattern.compile(String.join("|", wildcardList));
+    }
+
+    boolean matches(String name) {
+      if (names.contains(name)) {
+        return true;
+      }
+      for (String prefix : prefixes) {
+        if (name.startsWith(prefix)) {
+          return true;
+        }
+      }
+      return wildcards != null && wildcards.matcher(name).matches();
+    }
+
+    private static int indexOfWildcard(String pattern) {
+      for (int i = 0; i < pattern.length(); i++) {
+        char c = pattern.charAt(i);
+        if (c == '*' || c == '?') {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    private static String toRegex(String pattern) {
+      StringBuilder regex = new StringBuilder("(?:");
+      int literalStart = 0;
+      for (int i = 0; i < pattern.length(); i++) {
+        char c = pattern.charAt(i);
+        if (c == '*' || c == '?') {
+          if (i > literalStart) {
+            regex.append(Pattern.quote(pattern.substring(literalStart, i)));
+          }
+          regex.append(c == '*' ? ".*" : ".");
+          literalStart = i + 1;
+        }
+      }
+      if (literalStart < pattern.length()) {
+        regex.append(Pattern.quote(pattern.substring(literalStart)));
+      }
+      return regex.append(')').toString();
+    }
+  }
+}
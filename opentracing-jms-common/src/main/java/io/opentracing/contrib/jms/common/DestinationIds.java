@@ -0,0 +1,78 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.common;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Interns destination keys, e.g. {@code queue://orders}, to small integer ids, so that
+ * per-destination metrics are array slots rather than map entries. Ids are assigned once per key
+ * when {@link DestinationMetadata} is resolved. Temporary destinations share one id, keys beyond
+ * {@link #MAX_IDS} share another.
+ */
+final class DestinationIds {
+
+  static final int MAX_IDS = 4096;
+  static final int OTHER = 0;
+  static final int TEMPORARY = 1;
+
+  private static final ConcurrentMap<String, Integer> IDS = new ConcurrentHashMap<>();
+  private static final AtomicReferenceArray<String> NAMES = new AtomicReferenceArray<>(MAX_IDS);
+  private static final AtomicInteger NEXT_ID = new AtomicInteger(TEMPORARY + 1);
+
+  static {
+    NAMES.set(OTHER, "other");
+    NAMES.set(TEMPORARY, "temporary");
+  }
+
+  private DestinationIds() {
+  }
+
+  static int idOf(String key, boolean temporary) {
+    if (temporary) {
+      return TEMPORARY;
+    }
+    Integer id = IDS.get(key);
+    if (id != null) {
+      return id;
+    }
+    if (NEXT_ID.get() >= MAX_IDS) {
+      return OTHER;
+    }
+    return IDS.computeIfAbsent(key, DestinationIds::assign);
+  }
+
+  private static Integer assign(String key) {
+    int id = NEXT_ID.getAndIncrement();
+    if (id >= MAX_IDS) {
+      return OTHER;
+    }
+    NAMES.set(id, key);
+    return id;
+  }
+
+  /**
+   * @return the number of ids handed out so far, all ids are below it
+   */
+  static int size() {
+    return Math.min(NEXT_ID.get(), MAX_IDS);
+  }
+
+  static String nameOf(int id) {
+    return NAMES.get(id);
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.common;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import jakarta.jms.Destination;
+import jakarta.jms.JMSException;
+import jakarta.jms.Queue;
+import jakarta.jms.TemporaryQueue;
+import jakarta.jms.TemporaryTopic;
+import jakarta.jms.Topic;
+
+/**
+ * Resolved metadata of a JMS destination: normalized name, queue or topic and whether it is
+ * temporary.
+ * <p>
+ * Metadata is cached by destination kind and provider name, so every {@code Destination} instance
+ * naming the same queue or topic, e.g. the one of each received message, resolves to the same
+ * metadata with a map lookup and without allocating. Up to {@link #MAX_CACHED} names are cached per
+ * kind. Metrics, rate limits and filter decisions are kept per kind and name, so {@code
+ * queue://orders} and {@code topic://orders} do not share them.
+ * <p>
+ * Temporary destinations have unique names, all temporary queues and all temporary topics resolve
+ * to one shared metadata each, named {@value #TEMPORARY_NAME}.
+ */
+public final class DestinationMetadata {
+
+  static final int MAX_CACHED = 4096;
+  static final String TEMPORARY_NAME = "temporary";
+
+  private static final ConcurrentMap<String, DestinationMetadata> QUEUES =
+      new ConcurrentHashMap<>();
+  private static final ConcurrentMap<String, DestinationMetadata> TOPICS =
+      new ConcurrentHashMap<>();
+  private static final ConcurrentMap<String, DestinationMetadata> OTHERS =
+      new ConcurrentHashMap<>();
+
+  private static final DestinationMetadata TEMPORARY_QUEUE =
+      new DestinationMetadata(TEMPORARY_NAME, true, false, true);
+  private static final DestinationMetadata TEMPORARY_TOPIC =
+      new DestinationMetadata(TEMPORARY_NAME, false, true, true);
+
+  private final String name;
+  private final String key;
+  private final boolean queue;
+  private final boolean topic;
+  private final boolean temporary;
+  private final int id;
+
+  private DestinationMetadata(String name, boolean queue, boolean topic, boolean temporary) {
+    this.name = name;
+    this.key = (queue ? "queue://" : topic ? "topic://" : "") + name;
+    this.queue = queue;
+    this.topic = topic;
+    this.temporary = temporary;
+    this.id = DestinationIds.idOf(key, temporary);
+  }
+
+  /**
+   * Resolve the metadata of the {@code destination}.
+   *
+   * @param destination the destination
+   * @return the metadata or {@code null} if the destination is {@code null}
+   */
+  public static DestinationMetadata of(Destination destination) {
+    if (destination == null) {
+      return null;
+    }
+    if (destination instanceof TemporaryQueue) {
+      return TEMPORARY_QUEUE;
+    }
+    if (destination instanceof TemporaryTopic) {
+      return TEMPORARY_TOPIC;
+    }
+    boolean queue = destination instanceof Queue;
+    boolean topic = !queue && destination instanceof Topic;
+    String name = resolveName(destination, queue, topic);
+    ConcurrentMap<String, DestinationMetadata> cache = queue ? QUEUES : topic ? TOPICS : OTHERS;
+    DestinationMetadata metadata = cache.get(name);
+    if (metadata == null) {
+      metadata = new DestinationMetadata(name, queue, topic, false);
+      if (cache.size() < MAX_CACHED) {
+        DestinationMetadata existing = cache.putIfAbsent(name, metadata);
+        if (existing != null) {
+          metadata = existing;
+        }
+      }
+    }
+    return metadata;
+  }
+
+  /**
+   * @return queue or topic name, or the {@code toString()} of other destinations, {@value
+   * #TEMPORARY_NAME} for temporary destinations
+   */
+  public String getName() {
+    return name;
+  }
+
+  public boolean isQueue() {
+    return queue;
+  }
+
+  public boolean isTopic() {
+    return topic;
+  }
+
+  public boolean isTemporary() {
+    return temporary;
+  }
+
+  /**
+   * @return value of the {@code message_bus.destination} tag
+   */
+  public String getDestinationTag() {
+    return name;
+  }
+
+  /**
+   * @return interned id used to index per-destination metrics
+   */
+  int id() {
+    return id;
+  }
+
+  /**
+   * @return the name qualified by the kind, e.g. {@code queue://orders}
+   */
+  String key() {
+    return key;
+  }
+
+  @Override
+  public String toString() {
+    return key;
+  }
+
+  private static String resolveName(Destination destination, boolean queue, boolean topic) {
+    try {
+      String name = null;
+      if (queue) {
+        name = ((Queue) destination).getQueueName();
+      } else if (topic) {
+        name = ((Topic) destination).getTopicName();
+      }
+      return name != null ? name : destination.toString();
+    } catch (JMSException e) {
+      return destination.toString();
+    }
+  }
+}
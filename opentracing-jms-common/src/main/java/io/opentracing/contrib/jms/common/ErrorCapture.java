@@ -0,0 +1,147 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.common;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Policy which decides how much of a stack trace {@link SpanJmsDecorator#onError(Throwable,
+ * io.opentracing.Span)} logs on a span. Error kind and message are always logged.
+ */
+public abstract class ErrorCapture {
+
+  /**
+   * Log the full stack trace of every error.
+   */
+  public static final ErrorCapture FULL_STACK = new ErrorCapture() {
+    @Override
+    protected String stack(Throwable throwable) {
+      return render(throwable);
+    }
+  };
+
+  /**
+   * Log error kind and message only.
+   */
+  public static final ErrorCapture KIND_AND_MESSAGE = new ErrorCapture() {
+    @Override
+    protected String stack(Throwable throwable) {
+      return null;
+    }
+  };
+
+  /**
+   * Maximum number of stack traces kept by {@link #cachedStack()}.
+   */
+  static final int MAX_CACHED_STACKS = 256;
+
+  private static final String LIBRARY_PACKAGE = "io.opentracing.contrib.";
+  private static final StackWalker WALKER = StackWalker.getInstance();
+  private static final StackTraceElement NO_FRAME =
+      new StackTraceElement("unknown", "unknown", null, -1);
+
+  /**
+   * Log a stack trace limited to the top {@code maxFrames} frames, without causes.
+   *
+   * @param maxFrames the number of frames to render
+   * @return the policy
+   */
+  public static ErrorCapture truncatedStack(final int maxFrames) {
+    if (maxFrames < 0) {
+      throw new IllegalArgumentException("maxFrames must not be negative: " + maxFrames);
+    }
+    return new ErrorCapture() {
+      @Override
+      protected String stack(Throwable throwable) {
+        StackTraceElement[] frames = throwable.getStackTrace();
+        int rendered = Math.min(frames.length, maxFrames);
+        StringBuilder builder = new StringBuilder(64 + rendered * 64);
+        builder.append(throwable).append('\n');
+        for (int i = 0; i < rendered; i++) {
+          builder.append("\tat ").append(frames[i]).append('\n');
+        }
+        if (rendered < frames.length) {
+          builder.append("\t... ").append(frames.length - rendered).append(" more\n");
+        }
+        return builder.toString();
+      }
+    };
+  }
+
+  /**
+   * Render the full stack trace once per exception class and call site and log the cached text for
+   * every further error of that class reported from there. The call site is the first frame of the
+   * reporting thread outside of {@code io.opentracing.contrib}, e.g. the application code calling a
+   * traced send or the provider thread invoking a traced listener. It is found with a {@link
+   * StackWalker}, so the stack trace of the error is only materialized when it is rendered. The
+   * cached text is the stack trace of the first error seen, therefore its message line and throw
+   * site may differ from the logged error.
+   *
+   * @return the policy
+   */
+  public static ErrorCapture cachedStack() {
+    return new ErrorCapture() {
+      private final ConcurrentMap<Class<?>, ConcurrentMap<StackTraceElement, String>> stacks =
+          new ConcurrentHashMap<>();
+      private final AtomicInteger size = new AtomicInteger();
+
+      @Override
+      protected String stack(Throwable throwable) {
+        StackTraceElement site = callSite();
+        ConcurrentMap<StackTraceElement, String> sites = stacks.get(throwable.getClass());
+        String stack = sites != null ? sites.get(site) : null;
+        if (stack != null) {
+          return stack;
+        }
+        stack = render(throwable);
+        if (size.get() < MAX_CACHED_STACKS) {
+          if (sites == null) {
+            sites = stacks.computeIfAbsent(throwable.getClass(),
+                type -> new ConcurrentHashMap<>());
+          }
+          String existing = sites.putIfAbsent(site, stack);
+          if (existing != null) {
+            return existing;
+          }
+          size.incrementAndGet();
+        }
+        return stack;
+      }
+    };
+  }
+
+  /**
+   * @param throwable the error
+   * @return the stack trace to log or {@code null} to log none
+   */
+  protected abstract String stack(Throwable throwable);
+
+  private static StackTraceElement callSite() {
+    return WALKER.walk(frames -> frames
+        .filter(frame -> !frame.getClassName().startsWith(LIBRARY_PACKAGE))
+        .findFirst())
+        .map(StackWalker.StackFrame::toStackTraceElement)
+        .orElse(NO_FRAME);
+  }
+
+  private static String render(Throwable throwable) {
+    StringWriter sw = new StringWriter();
+    throwable.printStackTrace(new PrintWriter(sw));
+    return sw.toString();
+  }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.common;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Limits the headers injected into every message. Baggage headers, recognized by the baggage
+ * prefixes of common tracers, are only injected if their key is allowed and the total size of
+ * the injected headers stays within {@code maxBytes}. Other headers, which identify the trace,
+ * are always injected but count towards the budget.
+ * <p>
+ * Sizes are those of the message properties as stored: the UTF-8 lengths of the encoded property
+ * names and of the values, or of the single property in the compact format, plus 1 byte for the
+ * sampling flag and 8 for the send time if stamped. Dropped baggage items are counted per
+ * destination in {@link JmsMetrics#counters()}.
+ */
+public final class HeaderBudget {
+
+  /**
+   * Baggage header prefixes of the mock, Jaeger and OpenTracing basic tracers.
+   */
+  public static final List<String> DEFAULT_BAGGAGE_PREFIXES =
+      Arrays.asList("baggage-", "uberctx-", "ot-baggage-");
+
+  private final String[] allowedBaggage;
+  private final String[] baggagePrefixes;
+  private final int maxBytes;
+
+  private HeaderBudget(Builder builder) {
+    this.allowedBaggage =
+        builder.allowedBaggage != null ? builder.allowedBaggage.toArray(new String[0]) : null;
+    this.baggagePrefixes = builder.baggagePrefixes.toArray(new String[0]);
+    this.maxBytes = builder.maxBytes;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public int getMaxBytes() {
+    return maxBytes;
+  }
+
+  /**
+   * @param key  the header key
+   * @param size the size of the header as stored on the message
+   * @param used the bytes of the properties already set on the message
+   * @return {@code false} if the header is a baggage item which is not allowed or does not fit
+   */
+  boolean admits(String key, int size, int used) {
+    int prefixLength = baggagePrefixLength(key);
+    if (prefixLength < 0) {
+      return true;
+    }
+    if (allowedBaggage != null && !isAllowed(key, prefixLength)) {
+      return false;
+    }
+    return used + size <= maxBytes;
+  }
+
+  /**
+   * @return the length of the baggage prefix of the {@code key}, {@code -1} if it is no baggage
+   */
+  private int baggagePrefixLength(String key) {
+    if (key == null) {
+      return -1;
+    }
+    for (String prefix : baggagePrefixes) {
+      if (key.regionMatches(true, 0, prefix, 0, prefix.length())) {
+        return prefix.length();
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Compare the baggage key in place, without allocating a substring per header.
+   */
+  private boolean isAllowed(String key, int offset) {
+    int length = key.length() - offset;
+    for (String allowed : allowedBaggage) {
+      if (allowed.length() == length && key.regionMatches(true, offset, allowed, 0, length)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  static int sizeOf(String key, String value) {
+    return utf8Length(key) + utf8Length(value);
+  }
+
+  private static int utf8Length(String value) {
+    if (value == null) {
+      return 0;
+    }
+    int length = value.length();
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c >= 0x800) {
+        // three bytes, a surrogate pair four bytes for two chars
+        length += Character.isSurrogate(c) ? 1 : 2;
+      } else if (c >= 0x80) {
+        length++;
+      }
+    }
+    return length;
+  }
+
+  public static final class Builder {
+
+    private Set<String> allowedBaggage;
+    private List<String> baggagePrefixes = DEFAULT_BAGGAGE_PREFIXES;
+    private int maxBytes = Integer.MAX_VALUE;
+
+    private Builder() {
+    }
+
+    /**
+     * Inject only baggage items with the given keys, compared case-insensitively. Calling this
+     * without keys drops all baggage.
+     *
+     * @param keys the allowed baggage keys
+     * @return this builder
+     */
+    public Builder allowBaggage(String... keys) {
+      if (allowedBaggage == null) {
+        allowedBaggage = new HashSet<>();
+      }
+      for (String key : keys) {
+        allowedBaggage.add(key.toLowerCase(Locale.ROOT));
+      }
+      return this;
+    }
+
+    /**
+     * @param prefixes the header prefixes the tracer uses for baggage items
+     * @return this builder
+     */
+    public Builder baggagePrefixes(String... prefixes) {
+      baggagePrefixes = Arrays.asList(prefixes);
+      return this;
+    }
+
+    /**
+     * @param maxBytes the maximum size of the headers injected into a message
+     * @return this builder
+     */
+    public Builder maxBytes(int maxBytes) {
+      if (maxBytes < 0) {
+        throw new IllegalArgumentException("maxBytes must not be negative: " + maxBytes);
+      }
+      this.maxBytes = maxBytes;
+      return this;
+    }
+
+    public HeaderBudget build() {
+      return new HeaderBudget(this);
+    }
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.common;
+
+import java.util.concurrent.TimeUnit;
+
+import jakarta.jms.Message;
+
+/**
+ * Per-destination metrics recorded by the tracing wrappers, independent of the tracer and its
+ * sampling. Recording is disabled by default.
+ */
+public final class JmsMetrics {
+
+  private static final LatencyHistograms ACK_LATENCY = new LatencyHistograms();
+  private static final DestinationCounters COUNTERS = new DestinationCounters();
+  private static final LatencyHistograms DWELL_TIME = new LatencyHistograms();
+  private static final ValueHistograms INJECTED_BYTES = new ValueHistograms();
+  private static final LatencyHistograms COMMIT_LATENCY = new LatencyHistograms();
+
+  private static volatile boolean enabled;
+
+  private JmsMetrics() {
+  }
+
+  /**
+   * @param enabled {@code true} to record metrics
+   */
+  public static void setEnabled(boolean enabled) {
+    JmsMetrics.enabled = enabled;
+  }
+
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * @return time from an asynchronous send until the broker acknowledged the message
+   */
+  public static LatencyHistograms ackLatency() {
+    return ACK_LATENCY;
+  }
+
+  /**
+   * @return time consumed messages spent in the broker, with millisecond precision
+   */
+  public static LatencyHistograms dwellTime() {
+    return DWELL_TIME;
+  }
+
+  /**
+   * @return bytes of the message properties added by tracing to each sent message
+   */
+  public static ValueHistograms injectedBytes() {
+    return INJECTED_BYTES;
+  }
+
+  /**
+   * @return duration of commits of transacted sessions with traced sends or receives, recorded
+   *     for no destination
+   */
+  public static LatencyHistograms commitLatency() {
+    return COMMIT_LATENCY;
+  }
+
+  /**
+   * @return sends, receives, empty polls, listener invocations, errors and dropped baggage items
+   */
+  public static DestinationCounters counters() {
+    return COUNTERS;
+  }
+
+  public static void recordSend(DestinationMetadata destination) {
+    if (enabled) {
+      COUNTERS.send(destination, 1);
+    }
+  }
+
+  public static void recordSends(DestinationMetadata destination, int count) {
+    if (enabled) {
+      COUNTERS.send(destination, count);
+    }
+  }
+
+  /**
+   * Count a receive call on the {@code destination} of a consumer.
+   *
+   * @param destination the destination of the consumer or {@code null} to use the destination of
+   *                    the message
+   * @param message     the received message or {@code null} if none was available
+   */
+  public static void recordReceive(DestinationMetadata destination, Message message) {
+    if (!enabled) {
+      return;
+    }
+    if (message == null) {
+      COUNTERS.emptyPoll(destination);
+    } else {
+      COUNTERS.receive(destination != null ? destination
+          : TracingMessageUtils.destinationOf(message));
+    }
+  }
+
+  /**
+   * @param destination the destination of the consumer or {@code null} to use the destination of
+   *                    the message
+   * @param message     the message passed to the listener
+   */
+  public static void recordListenerInvocation(DestinationMetadata destination, Message message) {
+    if (enabled) {
+      COUNTERS.listenerInvocation(destination != null ? destination
+          : TracingMessageUtils.destinationOf(message));
+    }
+  }
+
+  public static void recordError(DestinationMetadata destination) {
+    if (enabled) {
+      COUNTERS.error(destination);
+    }
+  }
+
+  /**
+   * @param destination the destination of the message
+   * @param millis      the dwell time in milliseconds, negative if unknown
+   * @see TracingMessageUtils#dwellTimeMillis(Message)
+   */
+  public static void recordDwellTime(DestinationMetadata destination, long millis) {
+    if (enabled && millis >= 0) {
+      DWELL_TIME.record(destination, TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+  }
+
+  /**
+   * @param destination    the destination of the message
+   * @param bytes          the size of the injected trace headers
+   * @param droppedBaggage the number of baggage items not injected
+   */
+  public static void recordInjection(DestinationMetadata destination, int bytes,
+      int droppedBaggage) {
+    if (!enabled) {
+      return;
+    }
+    INJECTED_BYTES.record(destination, bytes);
+    if (droppedBaggage > 0) {
+      COUNTERS.droppedBaggage(destination, droppedBaggage);
+    }
+  }
+
+  public static void recordCommit(long nanos) {
+    if (enabled) {
+      COMMIT_LATENCY.record(null, nanos);
+    }
+  }
+}
@@ -15,45 +15,55 @@ package io.opentracing.contrib.jms.common;
 
 
 import io.opentracing.propagation.TextMap;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Collections;
 import java.util.Enumeration;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import jakarta.jms.JMSException;
 import jakarta.jms.Message;
 
 /**
- * Helper class to extract span context from JMS message properties
+ * Helper class to extract span context from JMS message properties.
+ * <p>
+ * Properties are read lazily while the tracer iterates, nothing is copied upfront. If {@link
+ * PropagationKeys} are given, only those properties are looked up, otherwise all string properties
+ * of the message are offered to the tracer.
  */
 public class JmsTextMapExtractAdapter implements TextMap {
 
-  private final Map<String, String> map = new HashMap<>();
+  private final Message message;
+  private final PropagationKeys keys;
 
   public JmsTextMapExtractAdapter(Message message) {
+    this(message, null);
+  }
+
+  public JmsTextMapExtractAdapter(Message message, PropagationKeys keys) {
+    this.message = message;
+    this.keys = keys;
+  }
+
+  @Override
+  public Iterator<Map.Entry<String, String>> iterator() {
     if (message == null) {
-      return;
+      return Collections.emptyIterator();
+    }
+    if (keys != null) {
+      return new KeysIterator();
     }
     try {
-      Enumeration enumeration = message.getPropertyNames();
-      if (enumeration != null) {
-        while (enumeration.hasMoreElements()) {
-          String key = (String) enumeration.nextElement();
-          Object value = message.getObjectProperty(key);
-          if (value instanceof String) {
-            map.put(decodeDash(key), (String) value);
-          }
-        }
+      Enumeration<?> enumeration = message.getPropertyNames();
+      if (enumeration == null) {
+        return Collections.emptyIterator();
       }
+      return new PropertiesIterator(enumeration);
     } catch (JMSException e) {
       throw new RuntimeException(e);
     }
   }
 
-  @Override
-  public Iterator<Map.Entry<String, String>> iterator() {
-    return map.entrySet().iterator();
-  }
-
   @Override
   public void put(String key, String value) {
     throw new UnsupportedOperationException(
@@ -63,7 +73,79 @@ public class JmsTextMapExtractAdapter implements TextMap {
   /**
    * Decode dashes (encoded in {@link JmsTextMapInjectAdapter}
    */
-  private String decodeDash(String key) {
-    return key.replace(JmsTextMapInjectAdapter.DASH, "-");
+  static String decodeDash(String key) {
+    return DashEncodingCache.decode(key);
+  }
+
+  private String stringProperty(String name) {
+    try {
+      Object value = message.getObjectProperty(name);
+      return value instanceof String ? (String) value : null;
+    } catch (JMSException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private abstract class LookAheadIterator implements Iterator<Map.Entry<String, String>> {
+
+    private Map.Entry<String, String> next;
+
+    abstract Map.Entry<String, String> advance();
+
+    @Override
+    public boolean hasNext() {
+      if (next == null) {
+        next = advance();
+      }
+      return next != null;
+    }
+
+    @Override
+    public Map.Entry<String, String> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      Map.Entry<String, String> entry = next;
+      next = null;
+      return entry;
+    }
+  }
+
+  private class PropertiesIterator extends LookAheadIterator {
+
+    private final Enumeration<?> names;
+
+    PropertiesIterator(Enumeration<?> names) {
+      this.names = names;
+    }
+
+    @Override
+    Map.Entry<String, String> advance() {
+      while (names.hasMoreElements()) {
+        String name = (String) names.nextElement();
+        String value = stringProperty(name);
+        if (value != null) {
+          return new SimpleImmutableEntry<>(decodeDash(name), value);
+        }
+      }
+      return null;
+    }
+  }
+
+  private class KeysIterator extends LookAheadIterator {
+
+    private int index;
+
+    @Override
+    Map.Entry<String, String> advance() {
+      while (index < keys.size()) {
+        int current = index++;
+        String value = stringProperty(keys.propertyName(current));
+        if (value != null) {
+          return new SimpleImmutableEntry<>(keys.key(current), value);
+        }
+      }
+      return null;
+    }
   }
 }
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.common;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * {@link LatencyHistogram} per destination, indexed by the interned destination id.
+ */
+public final class LatencyHistograms {
+
+  private final AtomicReferenceArray<LatencyHistogram> histograms =
+      new AtomicReferenceArray<>(DestinationIds.MAX_IDS);
+
+  /**
+   * @param destination the destination or {@code null}
+   * @param nanos       the latency in nanoseconds
+   */
+  public void record(DestinationMetadata destination, long nanos) {
+    histogram(destination != null ? destination.id() : DestinationIds.OTHER).record(nanos);
+  }
+
+  /**
+   * @return snapshots of the destinations with recorded values keyed by destination kind and
+   * name, e.g. {@code queue://orders}, with all temporary destinations under {@code temporary}
+   */
+  public Map<String, LatencyHistogram.Snapshot> snapshot() {
+    Map<String, LatencyHistogram.Snapshot> snapshots = new LinkedHashMap<>();
+    for (int id = 0; id < DestinationIds.size(); id++) {
+      LatencyHistogram histogram = histograms.get(id);
+      if (histogram != null) {
+        snapshots.put(DestinationIds.nameOf(id), histogram.snapshot());
+      }
+    }
+    return Collections.unmodifiableMap(snapshots);
+  }
+
+  private LatencyHistogram histogram(int id) {
+    LatencyHistogram histogram = histograms.get(id);
+    if (histogram == null) {
+      histograms.compareAndSet(id, null, new LatencyHistogram());
+      histogram = histograms.get(id);
+    }
+    return histogram;
+  }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.common;
+
+import io.opentracing.Span;
+import io.opentracing.Tracer;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageListener;
+import jakarta.jms.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+/**
+ * Tracing decorator for JMS MessageListener which processes messages on a fixed set of worker
+ * lanes instead of the session's delivery thread. Messages with the same value of the key property,
+ * {@code JMSXGroupID} by default, always go to the same lane and are processed in order, different
+ * groups are processed in parallel. Messages without the key are spread over all lanes.
+ *
+ * <p>At most {@code maxInFlight} messages are queued or processed at a time, the delivery thread
+ * blocks until a message completes. The consumer span is started when the message is queued, so it
+ * covers the time waiting for the lane, and is activated in the lane together with the MDC of the
+ * delivery thread. Runtime exceptions of the listener are logged, they cannot reach the delivery
+ * thread.
+ *
+ * <p>The delivery thread returns once the message is queued, so the message is acknowledged before
+ * it is processed. Only sessions of {@code AUTO_ACKNOWLEDGE} mode are supported: a transaction
+ * would be committed, and a client acknowledgement made, before the message is processed.
+ */
+public class OrderedTracingMessageListener extends TracingMessageListener
+    implements AutoCloseable {
+
+  /**
+   * The JMS defined message group property
+   */
+  public static final String GROUP_ID_PROPERTY = "JMSXGroupID";
+
+  private static final Logger log = LoggerFactory.getLogger(OrderedTracingMessageListener.class);
+
+  private final String keyProperty;
+  private final ExecutorService[] lanes;
+  private final Semaphore inFlight;
+  private final AtomicInteger nextLane = new AtomicInteger();
+
+  public OrderedTracingMessageListener(MessageListener messageListener, Tracer tracer, int lanes,
+      int maxInFlight) {
+    this(messageListener, tracer, false, null, Session.AUTO_ACKNOWLEDGE, lanes, maxInFlight,
+        GROUP_ID_PROPERTY, laneThreads());
+  }
+
+  /**
+   * @param destination   the destination of the consumer, used for {@link JmsMetrics} instead of
+   *                      resolving the destination of every message
+   * @param sessionMode   the session mode of the consumer, only {@link Session#AUTO_ACKNOWLEDGE}
+   *                      is supported
+   * @param lanes         the number of worker lanes
+   * @param maxInFlight   the maximum number of messages queued or processed at a time
+   * @param keyProperty   the string property to partition messages by
+   * @param threadFactory the factory of the lane threads
+   */
+  public OrderedTracingMessageListener(MessageListener messageListener, Tracer tracer,
+      boolean traceInLog, DestinationMetadata destination, int sessionMode, int lanes,
+      int maxInFlight, String keyProperty, ThreadFactory threadFactory) {
+    super(messageListener, tracer, traceInLog, destination);
+    if (sessionMode != Session.AUTO_ACKNOWLEDGE) {
+      throw new IllegalArgumentException(
+          "only AUTO_ACKNOWLEDGE sessions are supported: " + sessionMode);
+    }
+    if (lanes <= 0 || maxInFlight <= 0) {
+      throw new IllegalArgumentException(
+          "lanes and maxInFlight must be positive: " + lanes + ", " + maxInFlight);
+    }
+    this.keyProperty = keyProperty;
+    this.lanes = new ExecutorService[lanes];
+    for (int i = 0; i < lanes; i++) {
+      this.lanes[i] = Executors.newSingleThreadExecutor(threadFactory);
+    }
+    this.inFlight = new Semaphore(maxInFlight);
+  }
+
+  /**
+   * @return a factory of daemon threads named {@code jms-lane-<n>}
+   */
+  public static ThreadFactory laneThreads() {
+    AtomicInteger count = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, "jms-lane-" + count.getAndIncrement());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  @Override
+  public void onMessage(Message message) {
+    ExecutorService lane = lanes[laneOf(message)];
+    try {
+      inFlight.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for a free lane", e);
+    }
+    Map<String, String> context = MDC.getCopyOfContextMap();
+    Span span = startSpan(message);
+    try {
+      lane.execute(() -> {
+        try {
+          process(message, span, context);
+        } finally {
+          inFlight.release();
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      span.finish();
+      inFlight.release();
+      throw e;
+    }
+  }
+
+  /**
+   * Messages of a transacted consumer are queued to their lane like all others, the transaction
+   * does not wait for them.
+   */
+  @Override
+  void onMessage(Message message, TransactionSpans transactionSpans) {
+    onMessage(message);
+  }
+
+  /**
+   * Stop accepting messages, already queued messages are still processed.
+   */
+  @Override
+  public void close() {
+    for (ExecutorService lane : lanes) {
+      lane.shutdown();
+    }
+  }
+
+  /**
+   * @return {@code true} if all lanes finished after {@link #close()} within the timeout
+   */
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    for (ExecutorService lane : lanes) {
+      if (!lane.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void process(Message message, Span span, Map<String, String> context) {
+    Map<String, String> previous = MDC.getCopyOfContextMap();
+    setContextMap(context);
+    try {
+      onMessage(message, span);
+    } catch (RuntimeException e) {
+      log.error("Message listener failed", e);
+    } finally {
+      setContextMap(previous);
+    }
+  }
+
+  private int laneOf(Message message) {
+    String key = null;
+    try {
+      key = message.getStringProperty(keyProperty);
+    } catch (JMSException e) {
+      // spread like a message without key
+    }
+    int hash = key != null ? key.hashCode() : nextLane.getAndIncrement();
+    return Math.floorMod(hash, lanes.length);
+  }
+
+  private static void setContextMap(Map<String, String> context) {
+    if (context != null) {
+      MDC.setContextMap(context);
+    } else {
+      MDC.clear();
+    }
+  }
+}
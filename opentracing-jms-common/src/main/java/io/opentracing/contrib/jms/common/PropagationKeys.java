@@ -0,0 +1,89 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.common;
+
+import java.util.Arrays;
+import java.util.Collection;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+
+/**
+ * Fixed set of header names a tracer reads on {@code extract}, e.g. {@code uber-trace-id} or {@code
+ * traceparent}. The JMS property names are encoded once, so that messages can be probed with
+ * {@link Message#propertyExists(String)} and read key by key instead of enumerating all of their
+ * properties.
+ * <p>
+ * Baggage is propagated in headers with arbitrary names, therefore baggage items are only
+ * extracted if their header names are listed explicitly.
+ */
+public final class PropagationKeys {
+
+  private final String[] keys;
+  private final String[] propertyNames;
+
+  private PropagationKeys(String[] keys) {
+    this.keys = keys;
+    this.propertyNames = new String[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      propertyNames[i] = JmsTextMapInjectAdapter.encodeDash(keys[i]);
+    }
+  }
+
+  public static PropagationKeys of(String... keys) {
+    return new PropagationKeys(keys.clone());
+  }
+
+  public static PropagationKeys of(Collection<String> keys) {
+    return new PropagationKeys(keys.toArray(new String[0]));
+  }
+
+  /**
+   * Check whether the {@code message} carries at least one of the keys.
+   *
+   * @param message the JMS message
+   * @return {@code true} if one of the encoded property names exists on the message
+   */
+  public boolean isPresentOn(Message message) {
+    if (message == null) {
+      return false;
+    }
+    try {
+      for (String propertyName : propertyNames) {
+        if (message.propertyExists(propertyName)) {
+          return true;
+        }
+      }
+    } catch (JMSException e) {
+      throw new RuntimeException(e);
+    }
+    return false;
+  }
+
+  int size() {
+    return keys.length;
+  }
+
+  String key(int index) {
+    return keys[index];
+  }
+
+  String propertyName(int index) {
+    return propertyNames[index];
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(keys);
+  }
+}
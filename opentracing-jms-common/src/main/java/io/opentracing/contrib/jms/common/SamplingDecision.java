@@ -0,0 +1,33 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.common;
+
+import io.opentracing.SpanContext;
+
+/**
+ * Exposes the sampling decision of the tracer, which the OpenTracing API does not. Producers stamp
+ * the decision on every message as {@link TracingMessageUtils#SAMPLED_PROPERTY}, so consumers of
+ * unsampled traces skip extraction and span creation.
+ * <p>
+ * For Jaeger: {@code context -> ((JaegerSpanContext) context).isSampled()}.
+ */
+@FunctionalInterface
+public interface SamplingDecision {
+
+  /**
+   * @param context the context of the producer span
+   * @return {@code true} if the trace is recorded
+   */
+  boolean isSampled(SpanContext context);
+}
@@ -14,9 +14,9 @@
 package io.opentracing.contrib.jms.common;
 
 import io.opentracing.Span;
+import io.opentracing.noop.NoopSpan;
 import io.opentracing.tag.Tags;
-import java.io.PrintWriter;
-import java.io.StringWriter;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import jakarta.jms.Destination;
@@ -27,6 +27,17 @@ import jakarta.jms.Message;
  */
 public class SpanJmsDecorator {
 
+  private static volatile ErrorCapture errorCapture = ErrorCapture.FULL_STACK;
+
+  /**
+   * Set how much of a stack trace is logged on error. Defaults to {@link
+   * ErrorCapture#FULL_STACK}.
+   *
+   * @param capture the error capture policy
+   */
+  public static void setErrorCapture(ErrorCapture capture) {
+    errorCapture = capture != null ? capture : ErrorCapture.FULL_STACK;
+  }
 
   /**
    * Decorate span before a request is made.
@@ -35,8 +46,20 @@ public class SpanJmsDecorator {
    * @param span span
    */
   public static void onRequest(Destination destination, Span span) {
+    onRequest(DestinationMetadata.of(destination), span);
+  }
+
+  /**
+   * Decorate span before a request is made.
+   *
+   * @param destination resolved destination metadata
+   * @param span span
+   */
+  public static void onRequest(DestinationMetadata destination, Span span) {
     Tags.COMPONENT.set(span, TracingMessageUtils.COMPONENT_NAME);
-    Tags.MESSAGE_BUS_DESTINATION.set(span, destination.toString());
+    if (destination != null) {
+      Tags.MESSAGE_BUS_DESTINATION.set(span, destination.getDestinationTag());
+    }
   }
 
 
@@ -47,7 +70,20 @@ public class SpanJmsDecorator {
    * @param span span
    */
   public static void onResponse(Message message, Span span) {
+    onResponse(TracingMessageUtils.destinationOf(message), span);
+  }
+
+  /**
+   * Decorate span after request is made.
+   *
+   * @param destination resolved destination metadata of the message
+   * @param span span
+   */
+  public static void onResponse(DestinationMetadata destination, Span span) {
     Tags.COMPONENT.set(span, TracingMessageUtils.COMPONENT_NAME);
+    if (destination != null) {
+      Tags.MESSAGE_BUS_DESTINATION.set(span, destination.getDestinationTag());
+    }
   }
 
   /**
@@ -59,20 +95,21 @@ public class SpanJmsDecorator {
    */
   public static void onError(Throwable throwable, Span span) {
     Tags.ERROR.set(span, Boolean.TRUE);
-    span.log(errorLogs(throwable));
+    if (span instanceof NoopSpan) {
+      return;
+    }
+    span.log(errorLogs(throwable, errorCapture.stack(throwable)));
   }
 
-  private static Map<String, Object> errorLogs(Throwable throwable) {
-    Map<String, Object> errorLogs = new HashMap<>(4);
+  private static Map<String, Object> errorLogs(Throwable throwable, String stack) {
+    Map<String, Object> errorLogs = new HashMap<>(8);
     errorLogs.put("event", Tags.ERROR.getKey());
     errorLogs.put("error.kind", throwable.getClass().getName());
     errorLogs.put("message", throwable.getMessage());
     errorLogs.put("error.object", throwable);
-
-    StringWriter sw = new StringWriter();
-    throwable.printStackTrace(new PrintWriter(sw));
-    errorLogs.put("stack", sw.toString());
-
-    return errorLogs;
+    if (stack != null) {
+      errorLogs.put("stack", stack);
+    }
+    return Collections.unmodifiableMap(errorLogs);
   }
 }
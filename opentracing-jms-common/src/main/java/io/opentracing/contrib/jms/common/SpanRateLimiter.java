@@ -0,0 +1,105 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.common;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits the number of spans started per destination and second. Each destination, by kind and
+ * name, has its own token bucket, kept as a single {@code AtomicLong} holding the theoretical
+ * arrival time of the next span (GCRA), so acquiring a permit is one read and at most a few
+ * compare-and-set operations.
+ * <p>
+ * Destinations beyond {@link #MAX_BUCKETS} and messages without a destination share one bucket.
+ */
+public final class SpanRateLimiter {
+
+  static final int MAX_BUCKETS = 4096;
+
+  private final long intervalNanos;
+  private final long toleranceNanos;
+  private final LongSupplier nanoClock;
+  private final ConcurrentMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+  private final AtomicLong sharedBucket;
+
+  SpanRateLimiter(double spansPerSecond, int burst, LongSupplier nanoClock) {
+    if (!(spansPerSecond > 0)) {
+      throw new IllegalArgumentException("spansPerSecond must be positive: " + spansPerSecond);
+    }
+    if (burst < 1) {
+      throw new IllegalArgumentException("burst must be at least 1: " + burst);
+    }
+    this.intervalNanos = Math.max(1L, (long) (1_000_000_000L / spansPerSecond));
+    this.toleranceNanos = intervalNanos * (burst - 1);
+    this.nanoClock = nanoClock;
+    this.sharedBucket = new AtomicLong(nanoClock.getAsLong());
+  }
+
+  /**
+   * @param spansPerSecond the sustained number of spans per destination and second
+   * @return a limiter which allows bursts of one second worth of spans
+   */
+  public static SpanRateLimiter perSecond(double spansPerSecond) {
+    return perSecond(spansPerSecond, (int) Math.max(1, Math.ceil(spansPerSecond)));
+  }
+
+  /**
+   * @param spansPerSecond the sustained number of spans per destination and second
+   * @param burst          the number of spans which may be started at once
+   * @return the limiter
+   */
+  public static SpanRateLimiter perSecond(double spansPerSecond, int burst) {
+    return new SpanRateLimiter(spansPerSecond, burst, System::nanoTime);
+  }
+
+  /**
+   * Take a permit for a span on the {@code destination}.
+   *
+   * @param destination the destination or {@code null}
+   * @return {@code true} if the span may be started
+   */
+  public boolean tryAcquire(DestinationMetadata destination) {
+    long now = nanoClock.getAsLong();
+    AtomicLong bucket = bucket(destination, now);
+    for (;;) {
+      long arrival = bucket.get();
+      long start = arrival - now > 0 ? arrival : now;
+      if (start - now > toleranceNanos) {
+        return false;
+      }
+      if (bucket.compareAndSet(arrival, start + intervalNanos)) {
+        return true;
+      }
+    }
+  }
+
+  private AtomicLong bucket(DestinationMetadata destination, long now) {
+    if (destination == null) {
+      return sharedBucket;
+    }
+    AtomicLong bucket = buckets.get(destination.key());
+    if (bucket != null) {
+      return bucket;
+    }
+    if (buckets.size() >= MAX_BUCKETS) {
+      return sharedBucket;
+    }
+    AtomicLong created = new AtomicLong(now);
+    bucket = buckets.putIfAbsent(destination.key(), created);
+    return bucket != null ? bucket : created;
+  }
+}
@@ -0,0 +1,340 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.common;
+
+import io.opentracing.SpanContext;
+import java.util.Enumeration;
+import jakarta.jms.BytesMessage;
+import jakarta.jms.Destination;
+import jakarta.jms.JMSException;
+import jakarta.jms.MapMessage;
+import jakarta.jms.Message;
+import jakarta.jms.ObjectMessage;
+import jakarta.jms.StreamMessage;
+import jakarta.jms.TextMessage;
+
+/**
+ * Message returned by {@link TracingMessageConsumer} when {@code proxyMessage} is enabled. It
+ * delegates to the received message and carries the span context of the consumer span. In a
+ * transacted session the consumer span is only reported when the transaction completes, so the
+ * message carries the context of its {@link TransactionSpans commit span} instead, the parent of
+ * the consumer span. Typed
+ * subclasses cover the JMS message types, so calls are plain virtual calls the JIT can inline
+ * instead of reflective proxy invocations.
+ *
+ * @param <M> the delegate message type
+ */
+class TracedMessage<M extends Message> implements Message, SpanContextContainer {
+
+  final M message;
+  private final SpanContext spanContext;
+
+  TracedMessage(M message, SpanContext spanContext) {
+    this.message = message;
+    this.spanContext = spanContext;
+  }
+
+  static Message wrap(Message message, SpanContext spanContext) {
+    if (message == null) {
+      return null;
+    }
+    if (message instanceof TextMessage) {
+      return new TracedTextMessage((TextMessage) message, spanContext);
+    }
+    if (message instanceof BytesMessage) {
+      return new TracedBytesMessage((BytesMessage) message, spanContext);
+    }
+    if (message instanceof MapMessage) {
+      return new TracedMapMessage((MapMessage) message, spanContext);
+    }
+    if (message instanceof ObjectMessage) {
+      return new TracedObjectMessage((ObjectMessage) message, spanContext);
+    }
+    if (message instanceof StreamMessage) {
+      return new TracedStreamMessage((StreamMessage) message, spanContext);
+    }
+    return new TracedMessage<>(message, spanContext);
+  }
+
+  @Override
+  public SpanContext getSpanContext() {
+    return spanContext;
+  }
+
+  @Override
+  public String getJMSMessageID() throws JMSException {
+    return message.getJMSMessageID();
+  }
+
+  @Override
+  public void setJMSMessageID(String value) throws JMSException {
+    message.setJMSMessageID(value);
+  }
+
+  @Override
+  public long getJMSTimestamp() throws JMSException {
+    return message.getJMSTimestamp();
+  }
+
+  @Override
+  public void setJMSTimestamp(long value) throws JMSException {
+    message.setJMSTimestamp(value);
+  }
+
+  @Override
+  public byte[] getJMSCorrelationIDAsBytes() throws JMSException {
+    return message.getJMSCorrelationIDAsBytes();
+  }
+
+  @Override
+  public void setJMSCorrelationIDAsBytes(byte[] value) throws JMSException {
+    message.setJMSCorrelationIDAsBytes(value);
+  }
+
+  @Override
+  public void setJMSCorrelationID(String value) throws JMSException {
+    message.setJMSCorrelationID(value);
+  }
+
+  @Override
+  public String getJMSCorrelationID() throws JMSException {
+    return message.getJMSCorrelationID();
+  }
+
+  @Override
+  public Destination getJMSReplyTo() throws JMSException {
+    return message.getJMSReplyTo();
+  }
+
+  @Override
+  public void setJMSReplyTo(Destination value) throws JMSException {
+    message.setJMSReplyTo(value);
+  }
+
+  @Override
+  public Destination getJMSDestination() throws JMSException {
+    return message.getJMSDestination();
+  }
+
+  @Override
+  public void setJMSDestination(Destination value) throws JMSException {
+    message.setJMSDestination(value);
+  }
+
+  @Override
+  public int getJMSDeliveryMode() throws JMSException {
+    return message.getJMSDeliveryMode();
+  }
+
+  @Override
+  public void setJMSDeliveryMode(int value) throws JMSException {
+    message.setJMSDeliveryMode(value);
+  }
+
+  @Override
+  public boolean getJMSRedelivered() throws JMSException {
+    return message.getJMSRedelivered();
+  }
+
+  @Override
+  public void setJMSRedelivered(boolean value) throws JMSException {
+    message.setJMSRedelivered(value);
+  }
+
+  @Override
+  public String getJMSType() throws JMSException {
+    return message.getJMSType();
+  }
+
+  @Override
+  public void setJMSType(String value) throws JMSException {
+    message.setJMSType(value);
+  }
+
+  @Override
+  public long getJMSExpiration() throws JMSException {
+    return message.getJMSExpiration();
+  }
+
+  @Override
+  public void setJMSExpiration(long value) throws JMSException {
+    message.setJMSExpiration(value);
+  }
+
+  @Override
+  public long getJMSDeliveryTime() throws JMSException {
+    return message.getJMSDeliveryTime();
+  }
+
+  @Override
+  public void setJMSDeliveryTime(long value) throws JMSException {
+    message.setJMSDeliveryTime(value);
+  }
+
+  @Override
+  public int getJMSPriority() throws JMSException {
+    return message.getJMSPriority();
+  }
+
+  @Override
+  public void setJMSPriority(int value) throws JMSException {
+    message.setJMSPriority(value);
+  }
+
+  @Override
+  public void clearProperties() throws JMSException {
+    message.clearProperties();
+  }
+
+  @Override
+  public boolean propertyExists(String name) throws JMSException {
+    return message.propertyExists(name);
+  }
+
+  @Override
+  public boolean getBooleanProperty(String name) throws JMSException {
+    return message.getBooleanProperty(name);
+  }
+
+  @Override
+  public byte getByteProperty(String name) throws JMSException {
+    return message.getByteProperty(name);
+  }
+
+  @Override
+  public short getShortProperty(String name) throws JMSException {
+    return message.getShortProperty(name);
+  }
+
+  @Override
+  public int getIntProperty(String name) throws JMSException {
+    return message.getIntProperty(name);
+  }
+
+  @Override
+  public long getLongProperty(String name) throws JMSException {
+    return message.getLongProperty(name);
+  }
+
+  @Override
+  public float getFloatProperty(String name) throws JMSException {
+    return message.getFloatProperty(name);
+  }
+
+  @Override
+  public double getDoubleProperty(String name) throws JMSException {
+    return message.getDoubleProperty(name);
+  }
+
+  @Override
+  public String getStringProperty(String name) throws JMSException {
+    return message.getStringProperty(name);
+  }
+
+  @Override
+  public Object getObjectProperty(String name) throws JMSException {
+    return message.getObjectProperty(name);
+  }
+
+  @Override
+  @SuppressWarnings("rawtypes")
+  public Enumeration getPropertyNames() throws JMSException {
+    return message.getPropertyNames();
+  }
+
+  @Override
+  public void setBooleanProperty(String name, boolean value) throws JMSException {
+    message.setBooleanProperty(name, value);
+  }
+
+  @Override
+  public void setByteProperty(String name, byte value) throws JMSException {
+    message.setByteProperty(name, value);
+  }
+
+  @Override
+  public void setShortProperty(String name, short value) throws JMSException {
+    message.setShortProperty(name, value);
+  }
+
+  @Override
+  public void setIntProperty(String name, int value) throws JMSException {
+    message.setIntProperty(name, value);
+  }
+
+  @Override
+  public void setLongProperty(String name, long value) throws JMSException {
+    message.setLongProperty(name, value);
+  }
+
+  @Override
+  public void setFloatProperty(String name, float value) throws JMSException {
+    message.setFloatProperty(name, value);
+  }
+
+  @Override
+  public void setDoubleProperty(String name, double value) throws JMSException {
+    message.setDoubleProperty(name, value);
+  }
+
+  @Override
+  public void setStringProperty(String name, String value) throws JMSException {
+    message.setStringProperty(name, value);
+  }
+
+  @Override
+  public void setObjectProperty(String name, Object value) throws JMSException {
+    message.setObjectProperty(name, value);
+  }
+
+  @Override
+  public void acknowledge() throws JMSException {
+    message.acknowledge();
+  }
+
+  @Override
+  public void clearBody() throws JMSException {
+    message.clearBody();
+  }
+
+  @Override
+  public <T> T getBody(Class<T> c) throws JMSException {
+    return message.getBody(c);
+  }
+
+  @Override
+  @SuppressWarnings("rawtypes")
+  public boolean isBodyAssignableTo(Class c) throws JMSException {
+    return message.isBodyAssignableTo(c);
+  }
+
+  /**
+   * Traced messages are equal if their received messages are equal. A traced message is never
+   * equal to a provider message, so sets and maps must not mix both.
+   */
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof TracedMessage && message.equals(((TracedMessage<?>) o).message);
+  }
+
+  @Override
+  public int hashCode() {
+    return message.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return message.toString();
+  }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.common;
+
+import io.opentracing.SpanContext;
+import java.io.Serializable;
+import jakarta.jms.JMSException;
+import jakarta.jms.ObjectMessage;
+
+final class TracedObjectMessage extends TracedMessage<ObjectMessage> implements ObjectMessage {
+
+  TracedObjectMessage(ObjectMessage message, SpanContext spanContext) {
+    super(message, spanContext);
+  }
+
+  @Override
+  public void setObject(Serializable value) throws JMSException {
+    message.setObject(value);
+  }
+
+  @Override
+  public Serializable getObject() throws JMSException {
+    return message.getObject();
+  }
+}
@@ -15,9 +15,7 @@ package io.opentracing.contrib.jms.common;
 
 import io.opentracing.SpanContext;
 import io.opentracing.Tracer;
-import java.lang.reflect.InvocationHandler;
-import java.lang.reflect.Method;
-import java.lang.reflect.Proxy;
+import jakarta.jms.Destination;
 import jakarta.jms.JMSException;
 import jakarta.jms.Message;
 import jakarta.jms.MessageConsumer;
@@ -32,6 +30,8 @@ public class TracingMessageConsumer implements MessageConsumer {
   private final Tracer tracer;
   private final boolean proxyMessage;
   private final boolean traceInLog;
+  private final DestinationMetadata destination;
+  private final TransactionSpans transactionSpans;
 
   public TracingMessageConsumer(MessageConsumer messageConsumer, Tracer tracer) {
     this(messageConsumer, tracer, false, false);
@@ -44,10 +44,31 @@ public class TracingMessageConsumer implements MessageConsumer {
 
   public TracingMessageConsumer(MessageConsumer messageConsumer, Tracer tracer,
       boolean proxyMessage, boolean traceInLog) {
+    this(messageConsumer, tracer, proxyMessage, traceInLog, null);
+  }
+
+  /**
+   * @param destination the destination the consumer was created for, used for {@link JmsMetrics}
+   *                    instead of resolving the destination of every message
+   */
+  public TracingMessageConsumer(MessageConsumer messageConsumer, Tracer tracer,
+      boolean proxyMessage, boolean traceInLog, Destination destination) {
+    this(messageConsumer, tracer, proxyMessage, traceInLog, destination, null);
+  }
+
+  /**
+   * @param transactionSpans the transaction of the transacted session of the consumer, receive
+   *                         spans are reported when the transaction completes
+   */
+  public TracingMessageConsumer(MessageConsumer messageConsumer, Tracer tracer,
+      boolean proxyMessage, boolean traceInLog, Destination destination,
+      TransactionSpans transactionSpans) {
     this.messageConsumer = messageConsumer;
     this.tracer = tracer;
     this.proxyMessage = proxyMessage;
     this.traceInLog = traceInLog;
+    this.destination = DestinationMetadata.of(destination);
+    this.transactionSpans = transactionSpans;
   }
 
   @Override
@@ -62,10 +83,11 @@ public class TracingMessageConsumer implements MessageConsumer {
 
   @Override
   public void setMessageListener(MessageListener listener) throws JMSException {
-    if (listener instanceof TracingMessageConsumer) {
+    if (listener instanceof TracingMessageConsumer || listener instanceof TracingMessageListener) {
       messageConsumer.setMessageListener(listener);
     } else {
-      messageConsumer.setMessageListener(new TracingMessageListener(listener, tracer, traceInLog));
+      messageConsumer.setMessageListener(
+          new TracingMessageListener(listener, tracer, traceInLog, destination));
     }
   }
 
@@ -99,33 +121,56 @@ public class TracingMessageConsumer implements MessageConsumer {
     return message;
   }
 
+  /**
+   * Receive the next message and pass it to the {@code listener} within an activated consumer
+   * span, like a message delivered to a listener set by {@link
+   * #setMessageListener(MessageListener)}. Meant for blocking receive loops which process every
+   * message on the receiving thread. In a transacted session the commit span is active instead and
+   * the consumer span is reported when the transaction completes.
+   *
+   * @param timeout  the timeout in milliseconds, {@code 0} to block until a message arrives
+   * @param listener the listener processing the message, wrapped in a {@link
+   *                 TracingMessageListener} unless it is one already
+   * @return {@code false} if no message arrived before the timeout or the consumer was closed
+   */
+  public boolean receive(long timeout, MessageListener listener) throws JMSException {
+    Message message = messageConsumer.receive(timeout);
+    JmsMetrics.recordReceive(destination, message);
+    if (message == null) {
+      return false;
+    }
+    TracingMessageListener tracingListener = listener instanceof TracingMessageListener
+        ? (TracingMessageListener) listener : tracingListener(listener);
+    if (transactionSpans != null) {
+      tracingListener.onMessage(message, transactionSpans);
+    } else {
+      tracingListener.onMessage(message);
+    }
+    return true;
+  }
+
+  /**
+   * @param listener the listener to decorate
+   * @return the {@code listener} decorated like by {@link #setMessageListener(MessageListener)}
+   */
+  public TracingMessageListener tracingListener(MessageListener listener) {
+    return new TracingMessageListener(listener, tracer, traceInLog, destination);
+  }
+
   @Override
   public void close() throws JMSException {
     messageConsumer.close();
   }
 
   private SpanContext startAndFinishConsumerSpan(Message message) {
-    return TracingMessageUtils.startAndFinishConsumerSpan(message, tracer);
+    JmsMetrics.recordReceive(destination, message);
+    if (transactionSpans == null || message == null) {
+      return TracingMessageUtils.startAndFinishConsumerSpan(message, tracer);
+    }
+    return transactionSpans.received(message);
   }
 
-  private Message proxy(final Message message, final SpanContext spanContext) {
-    if (message == null) {
-      return null;
-    }
-    final Class<?>[] interfaces = message.getClass().getInterfaces();
-    Class<?>[] allInterfaces = new Class<?>[interfaces.length + 1];
-    System.arraycopy(interfaces, 0, allInterfaces, 0, interfaces.length);
-    allInterfaces[interfaces.length] = SpanContextContainer.class;
-
-    return (Message) Proxy.newProxyInstance(message.getClass().getClassLoader(), allInterfaces,
-        new InvocationHandler() {
-          @Override
-          public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-            if (method.getName().equals("getSpanContext")) {
-              return spanContext;
-            }
-            return method.invoke(message, args);
-          }
-        });
+  private Message proxy(Message message, SpanContext spanContext) {
+    return TracedMessage.wrap(message, spanContext);
   }
 }
@@ -16,9 +16,9 @@ package io.opentracing.contrib.jms.common;
 import io.opentracing.Scope;
 import io.opentracing.Span;
 import io.opentracing.Tracer;
+import io.opentracing.noop.NoopSpan;
 import jakarta.jms.Message;
 import jakarta.jms.MessageListener;
-import org.slf4j.MDC;
 
 /**
  * Tracing decorator for JMS MessageListener
@@ -28,6 +28,7 @@ public class TracingMessageListener implements MessageListener {
   private final MessageListener messageListener;
   private final Tracer tracer;
   private final boolean traceInLog;
+  private final DestinationMetadata destination;
 
   public TracingMessageListener(MessageListener messageListener, Tracer tracer) {
     this(messageListener, tracer, false);
@@ -35,31 +36,87 @@ public class TracingMessageListener implements MessageListener {
 
   public TracingMessageListener(MessageListener messageListener, Tracer tracer,
       boolean traceInLog) {
+    this(messageListener, tracer, traceInLog, null);
+  }
+
+  /**
+   * @param destination the destination of the consumer, used for {@link JmsMetrics} instead of
+   *                    resolving the destination of every message
+   */
+  public TracingMessageListener(MessageListener messageListener, Tracer tracer,
+      boolean traceInLog, DestinationMetadata destination) {
     this.messageListener = messageListener;
     this.tracer = tracer;
     this.traceInLog = traceInLog;
+    this.destination = destination;
   }
 
   @Override
   public void onMessage(Message message) {
-    Span span = TracingMessageUtils.startListenerSpan(message, tracer);
-    if (traceInLog) {
-      if (span != null) {
-        MDC.put("spanId", span.context().toSpanId());
-        MDC.put("traceId", span.context().toTraceId());
-      }
+    onMessage(message, startSpan(message));
+  }
+
+  /**
+   * Count the invocation and start the listener span of a {@code message}.
+   */
+  Span startSpan(Message message) {
+    JmsMetrics.recordListenerInvocation(destination, message);
+    return TracingMessageUtils.startListenerSpan(message, tracer);
+  }
+
+  /**
+   * Process a {@code message} within its already started listener {@code span}, which is finished
+   * afterwards.
+   */
+  void onMessage(Message message, Span span) {
+    if (span instanceof NoopSpan) {
+      invoke(message);
+      return;
     }
-    try (Scope ignored = tracer.activateSpan(span)) {
-      if (messageListener != null) {
-        messageListener.onMessage(message);
-      }
+    Scope scope = TracingMessageUtils.activateListenerSpan(span, tracer, traceInLog);
+    try {
+      invoke(message);
     } finally {
+      TracingMessageUtils.closeListenerScope(scope, traceInLog);
       span.finish();
-      if (traceInLog) {
-        MDC.remove("spanId");
-        MDC.remove("traceId");
-      }
     }
+  }
 
+  /**
+   * Process a {@code message} received in a transacted session. The listener span is reported when
+   * the transaction completes, the commit span is active while the listener runs.
+   */
+  void onMessage(Message message, TransactionSpans transactionSpans) {
+    JmsMetrics.recordListenerInvocation(destination, message);
+    int record = transactionSpans.startProcess(message);
+    if (record < 0) {
+      invoke(message);
+      return;
+    }
+    Scope scope = TracingMessageUtils.activateListenerSpan(transactionSpans.commitSpan(), tracer,
+        traceInLog);
+    Throwable error = null;
+    try {
+      invoke(message);
+    } catch (RuntimeException | Error e) {
+      error = e;
+      throw e;
+    } finally {
+      TracingMessageUtils.closeListenerScope(scope, traceInLog);
+      transactionSpans.finished(record, error);
+    }
+  }
+
+  private void invoke(Message message) {
+    if (messageListener == null) {
+      return;
+    }
+    try {
+      messageListener.onMessage(message);
+    } catch (RuntimeException | Error e) {
+      JmsMetrics.recordError(destination != null ? destination
+          : TracingMessageUtils.destinationOf(message));
+      throw e;
+    }
   }
 }
@@ -14,14 +14,24 @@
 package io.opentracing.contrib.jms.common;
 
 import io.opentracing.References;
+import io.opentracing.Scope;
 import io.opentracing.Span;
 import io.opentracing.SpanContext;
 import io.opentracing.Tracer;
+import io.opentracing.noop.NoopSpan;
 import io.opentracing.propagation.Format;
+import io.opentracing.propagation.TextMap;
+import io.opentracing.propagation.TextMapAdapter;
 import io.opentracing.tag.Tags;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 
 import jakarta.jms.Destination;
+import jakarta.jms.JMSException;
 import jakarta.jms.Message;
+import org.slf4j.MDC;
 
 public class TracingMessageUtils {
 
@@ -29,6 +39,113 @@ public class TracingMessageUtils {
   public static final String OPERATION_NAME_SEND = "jms-send";
   public static final String OPERATION_NAME_RECEIVE = "jms-receive";
   public static final String OPERATION_NAME_ON_MESSAGE = "jms-on-message";
+  public static final String OPERATION_NAME_SEND_BATCH = "jms-send-batch";
+  public static final String OPERATION_NAME_BROWSE = "jms-browse";
+  public static final String OPERATION_NAME_COMMIT = "jms-commit";
+  public static final String BATCH_SIZE_TAG = "messaging.batch.message_count";
+
+  /**
+   * Byte message property set to {@code 0} by the producer when the trace of the message is not
+   * recorded, to {@code 2} when the rate limit of the producer was exceeded, or to {@code 1} when
+   * the trace is recorded and a {@link SamplingDecision} is set. Consumers do not start spans for
+   * messages flagged with {@code 0} or {@code 2}. A forwarding producer honours {@code 0} and
+   * applies its own rate limit.
+   */
+  public static final String SAMPLED_PROPERTY = "ot_sampled";
+
+  /**
+   * Long message property with the send time in epoch milliseconds, injected if enabled by {@link
+   * #setInjectSendTime(boolean)}.
+   */
+  public static final String SEND_TIME_PROPERTY = "ot_send_time";
+
+  /**
+   * String message property carrying the whole span context if enabled by {@link
+   * #setCompactContext(boolean)}.
+   */
+  public static final String CONTEXT_PROPERTY = "ot_ctx";
+
+  /**
+   * Tag with the time in milliseconds a consumed message spent in the broker.
+   */
+  public static final String DWELL_TIME_TAG = "messaging.dwell_time_ms";
+
+  private static final byte NOT_SAMPLED = 0;
+  private static final byte SAMPLED = 1;
+  private static final byte RATE_LIMITED = 2;
+  private static final int SAMPLED_BYTES = SAMPLED_PROPERTY.length() + Byte.BYTES;
+  private static final int SEND_TIME_BYTES = SEND_TIME_PROPERTY.length() + Long.BYTES;
+
+  private static volatile PropagationKeys propagationKeys;
+  private static volatile SpanRateLimiter rateLimiter;
+  private static volatile boolean injectSendTime;
+  private static volatile boolean compactContext;
+  private static volatile HeaderBudget headerBudget;
+  private static volatile SamplingDecision samplingDecision;
+
+  /**
+   * Restrict extraction to the given header names instead of offering all message properties to
+   * the tracer. Messages which carry none of the keys are not passed to {@code Tracer.extract()}
+   * at all.
+   *
+   * @param keys the header names read by the tracer or {@code null} to read all properties
+   */
+  public static void setPropagationKeys(PropagationKeys keys) {
+    propagationKeys = keys;
+  }
+
+  /**
+   * Limit the number of spans started per destination. When the budget of a destination is spent,
+   * a no-op span is returned instead and the message is flagged with {@link #SAMPLED_PROPERTY} so
+   * that consumers skip it as well.
+   *
+   * @param limiter the limiter or {@code null} to trace all messages
+   */
+  public static void setRateLimiter(SpanRateLimiter limiter) {
+    rateLimiter = limiter;
+  }
+
+  /**
+   * Stamp the sampling decision of the tracer as {@link #SAMPLED_PROPERTY} on every injected
+   * message, so that consumers of unsampled traces return a no-op span without extracting the
+   * context. Work done by such consumers is not linked to the producer trace.
+   *
+   * @param decision the decision of the tracer or {@code null} to flag rate-limited messages only
+   */
+  public static void setSamplingDecision(SamplingDecision decision) {
+    samplingDecision = decision;
+  }
+
+  /**
+   * Inject the send time as {@link #SEND_TIME_PROPERTY} along with the span context, for
+   * providers or producers which do not set {@code JMSTimestamp}.
+   *
+   * @param enabled {@code true} to inject the send time
+   */
+  public static void setInjectSendTime(boolean enabled) {
+    injectSendTime = enabled;
+  }
+
+  /**
+   * Inject the span context as the single property {@link #CONTEXT_PROPERTY} instead of one
+   * property per tracer header. Extraction always reads {@link #CONTEXT_PROPERTY} first and falls
+   * back to the per-header properties, so consumers can be upgraded before producers switch.
+   *
+   * @param enabled {@code true} to inject the compact format
+   */
+  public static void setCompactContext(boolean enabled) {
+    compactContext = enabled;
+  }
+
+  /**
+   * Restrict the baggage injected into messages by an allowlist and a size budget. The size of the
+   * injected headers is recorded by {@link JmsMetrics#injectedBytes()} once metrics are enabled.
+   *
+   * @param budget the budget or {@code null} to inject all headers
+   */
+  public static void setHeaderBudget(HeaderBudget budget) {
+    headerBudget = budget;
+  }
 
   /**
    * Start message consumer {@code span} and finish it.
@@ -46,6 +163,17 @@ public class TracingMessageUtils {
     return span.context();
   }
 
+  /**
+   * Start message consumer {@code span}, finished by the caller.
+   *
+   * @param message the received JMS message
+   * @param tracer  the tracer
+   * @return the span
+   */
+  public static Span startReceiveSpan(Message message, Tracer tracer) {
+    return startConsumerSpan(message, tracer, OPERATION_NAME_RECEIVE);
+  }
+
   /**
    * Start message listener {@code span}.
    *
@@ -57,6 +185,32 @@ public class TracingMessageUtils {
     return startConsumerSpan(message, tracer, OPERATION_NAME_ON_MESSAGE);
   }
 
+  /**
+   * Activate the {@code span} a listener runs in and, if {@code traceInLog}, put its ids into the
+   * MDC.
+   *
+   * @return the scope to pass to {@link #closeListenerScope(Scope, boolean)}
+   */
+  public static Scope activateListenerSpan(Span span, Tracer tracer, boolean traceInLog) {
+    if (traceInLog) {
+      MDC.put("spanId", span.context().toSpanId());
+      MDC.put("traceId", span.context().toTraceId());
+    }
+    return tracer.activateSpan(span);
+  }
+
+  /**
+   * Close the {@code scope} of {@link #activateListenerSpan(Span, Tracer, boolean)} and remove the
+   * ids from the MDC. The span is not finished.
+   */
+  public static void closeListenerScope(Scope scope, boolean traceInLog) {
+    scope.close();
+    if (traceInLog) {
+      MDC.remove("spanId");
+      MDC.remove("traceId");
+    }
+  }
+
   /**
    * Extract {@code spanContext} from the {@code message} or an active {@code span}.
    *
@@ -65,16 +219,374 @@ public class TracingMessageUtils {
    * @return an extracted span context
    */
   public static SpanContext extract(Message message, Tracer tracer) {
-    SpanContext context = tracer.extract(Format.Builtin.TEXT_MAP, new JmsTextMapExtractAdapter(message));
+    SpanContext context = extractValid(message, tracer);
+    return context != null ? context : activeContext(tracer);
+  }
+
+  /**
+   * @return the span context carried by the {@code message} or {@code null}
+   */
+  static SpanContext extractValid(Message message, Tracer tracer) {
+    SpanContext context = extractFromMessage(message, tracer);
     if (context != null && context.toTraceId() != null && context.toSpanId() != null) {
       return context;
     }
+    return null;
+  }
+
+  /**
+   * Check whether the {@code message} may carry a span context, i.e. it is forwarded after being
+   * received or sent again. A freshly created message has neither {@code JMSDestination} nor
+   * {@code JMSMessageID} set before it is sent. If {@link PropagationKeys} are configured, the
+   * keys are probed instead.
+   *
+   * @param message the JMS message
+   * @return {@code false} if the message cannot carry a span context
+   */
+  public static boolean mayCarrySpanContext(Message message) {
+    if (message == null) {
+      return false;
+    }
+    PropagationKeys keys = propagationKeys;
+    if (keys != null) {
+      return keys.isPresentOn(message) || compactContextOf(message) != null;
+    }
+    try {
+      return message.getJMSDestination() != null || message.getJMSMessageID() != null;
+    } catch (JMSException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Resolve the metadata of the {@code JMSDestination} of the {@code message}.
+   *
+   * @param message the JMS message
+   * @return the destination metadata or {@code null} if the message has no destination
+   */
+  public static DestinationMetadata destinationOf(Message message) {
+    if (message == null) {
+      return null;
+    }
+    try {
+      return DestinationMetadata.of(message.getJMSDestination());
+    } catch (JMSException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Check whether the {@code message} was flagged as not sampled by its producer.
+   *
+   * @param message the JMS message
+   * @return {@code true} if {@link #SAMPLED_PROPERTY} is set to {@code 0} or {@code 2}
+   */
+  public static boolean isNotSampled(Message message) {
+    byte flag = samplingFlagOf(message);
+    return flag == NOT_SAMPLED || flag == RATE_LIMITED;
+  }
+
+  /**
+   * @return the {@link #SAMPLED_PROPERTY} of the {@code message} or {@code -1} if not set
+   */
+  private static byte samplingFlagOf(Message message) {
+    if (message == null) {
+      return -1;
+    }
+    try {
+      Object sampled = message.getObjectProperty(SAMPLED_PROPERTY);
+      return sampled instanceof Byte ? (Byte) sampled : -1;
+    } catch (JMSException e) {
+      return -1;
+    }
+  }
+
+  /**
+   * Compute how long the {@code message} has been in the broker from its {@code JMSTimestamp} or,
+   * if not set, from {@link #SEND_TIME_PROPERTY}. Clock skew between producer and consumer is
+   * clamped to {@code 0}.
+   *
+   * @param message the consumed JMS message
+   * @return the dwell time in milliseconds or {@code -1} if the send time is unknown
+   */
+  public static long dwellTimeMillis(Message message) {
+    if (message == null) {
+      return -1;
+    }
+    try {
+      long sendTime = message.getJMSTimestamp();
+      if (sendTime <= 0) {
+        Object property = message.getObjectProperty(SEND_TIME_PROPERTY);
+        if (!(property instanceof Long)) {
+          return -1;
+        }
+        sendTime = (Long) property;
+      }
+      return Math.max(0, System.currentTimeMillis() - sendTime);
+    } catch (JMSException e) {
+      return -1;
+    }
+  }
+
+  /**
+   * @return {@code true} if the send time was stamped
+   */
+  private static boolean stampSendTime(Message message) {
+    if (!injectSendTime) {
+      return false;
+    }
+    try {
+      message.setLongProperty(SEND_TIME_PROPERTY, System.currentTimeMillis());
+      return true;
+    } catch (JMSException e) {
+      // read-only properties of a forwarded message
+      return false;
+    }
+  }
+
+  static void recordDwellTime(Message message) {
+    if (JmsMetrics.isEnabled()) {
+      JmsMetrics.recordDwellTime(destinationOf(message), dwellTimeMillis(message));
+    }
+  }
+
+  private static boolean markRateLimited(Message message) {
+    return markSampled(message, RATE_LIMITED);
+  }
+
+  /**
+   * @return {@code true} if the flag was stamped
+   */
+  private static boolean markSampled(Message message, byte sampled) {
+    try {
+      message.setByteProperty(SAMPLED_PROPERTY, sampled);
+    } catch (JMSException e) {
+      // read-only properties of a forwarded message, consumers apply their own limit
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Stamp the sampling decision of a traced send, overwriting the rate limit flag left on the
+   * message by an earlier send.
+   *
+   * @return {@code true} if the flag was stamped
+   */
+  private static boolean markTraced(Message message, byte sampled) {
+    if (sampled >= 0) {
+      return markSampled(message, sampled);
+    }
+    return samplingFlagOf(message) == RATE_LIMITED && markSampled(message, SAMPLED);
+  }
+
+  /**
+   * Record the size of the flags stamped on a message which is not traced.
+   */
+  private static void recordStamps(DestinationMetadata destination, boolean sendTime,
+      boolean sampled) {
+    if (JmsMetrics.isEnabled()) {
+      JmsMetrics.recordInjection(destination, stampedBytes(sendTime, sampled), 0);
+    }
+  }
+
+  private static int stampedBytes(boolean sendTime, boolean sampled) {
+    return (sendTime ? SEND_TIME_BYTES : 0) + (sampled ? SAMPLED_BYTES : 0);
+  }
+
+  /**
+   * @return the flag to stamp or {@code -1} if no decision is set
+   */
+  private static byte samplingFlag(SpanContext context) {
+    SamplingDecision decision = samplingDecision;
+    if (decision == null) {
+      return -1;
+    }
+    return decision.isSampled(context) ? SAMPLED : NOT_SAMPLED;
+  }
+
+  /**
+   * @return {@code false} if the rate limit of the {@code destination} is exceeded
+   */
+  static boolean tryAcquire(DestinationMetadata destination) {
+    SpanRateLimiter limiter = rateLimiter;
+    return limiter == null || limiter.tryAcquire(destination);
+  }
+
+  /**
+   * Apply the sampling flag of a forwarded message and the rate limit to a send. A rate limit flag
+   * is not honoured, it records the budget of an earlier send. A rate-limited message is flagged
+   * as not sampled.
+   *
+   * @param forwarded whether the message {@link #mayCarrySpanContext(Message) may carry} a context
+   * @return {@code false} if the send is not traced
+   */
+  static boolean admitsSend(DestinationMetadata destination, Message message, boolean forwarded) {
+    if (forwarded && samplingFlagOf(message) == NOT_SAMPLED) {
+      return false;
+    }
+    if (!tryAcquire(destination)) {
+      recordStamps(destination, stampSendTime(message), markRateLimited(message));
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Apply the rate limit to a batch send, rate-limited messages are flagged as not sampled.
+   *
+   * @return {@code false} if the batch is not traced
+   */
+  static boolean admitsBatch(DestinationMetadata destination, List<? extends Message> messages) {
+    if (tryAcquire(destination)) {
+      return true;
+    }
+    for (Message message : messages) {
+      recordStamps(destination, stampSendTime(message), markRateLimited(message));
+    }
+    return false;
+  }
+
+  /**
+   * Consumers follow the decision of the producer, only messages which carry neither a span
+   * context nor a sampling flag are rate-limited.
+   *
+   * @param extracted the context extracted from the message or {@code null}
+   * @return {@code false} if the receive is not traced
+   */
+  static boolean admitsReceive(DestinationMetadata destination, Message message,
+      SpanContext extracted) {
+    return extracted != null || samplingFlagOf(message) == SAMPLED || tryAcquire(destination);
+  }
+
+  /**
+   * Collects injected properties once, with names already encoded or packed into the compact
+   * format, to set them on many messages.
+   */
+  private static final class InjectedProperties implements TextMap {
+
+    private final List<String> names;
+    private final List<String> values;
+    private final StringBuilder compact;
+
+    InjectedProperties(boolean compact) {
+      this.names = compact ? null : new ArrayList<>(4);
+      this.values = compact ? null : new ArrayList<>(4);
+      this.compact = compact ? new StringBuilder(64) : null;
+    }
+
+    @Override
+    public Iterator<Map.Entry<String, String>> iterator() {
+      throw new UnsupportedOperationException("iterator should never be used with Tracer.inject()");
+    }
+
+    @Override
+    public void put(String key, String value) {
+      if (compact != null) {
+        CompactContextCodec.append(compact, key, value);
+        return;
+      }
+      names.add(JmsTextMapInjectAdapter.encodeDash(key));
+      values.add(value);
+    }
+
+    void copyTo(Message message) {
+      try {
+        if (compact != null) {
+          message.setStringProperty(CONTEXT_PROPERTY, compact.toString());
+          return;
+        }
+        for (int i = 0; i < names.size(); i++) {
+          message.setStringProperty(names.get(i), values.get(i));
+        }
+      } catch (JMSException e) {
+        throw new RuntimeException(e);
+      }
+    }
+  }
+
+  /**
+   * Sums the size of the injected headers as stored on the message, with encoded property names
+   * or packed into the compact format, and drops baggage items rejected by the budget.
+   */
+  private static final class MeasuredTextMap implements TextMap {
+
+    private final TextMap carrier;
+    private final HeaderBudget budget;
+    private final boolean compact;
+    private final int reserved;
+    private boolean empty = true;
+    int bytes;
+    int dropped;
+
+    /**
+     * @param reserved the bytes of the flags stamped after injection, counted by the budget only
+     */
+    MeasuredTextMap(TextMap carrier, HeaderBudget budget, boolean compact, int reserved) {
+      this.carrier = carrier;
+      this.budget = budget;
+      this.compact = compact;
+      this.reserved = reserved;
+      this.bytes = compact ? CONTEXT_PROPERTY.length() : 0;
+    }
+
+    @Override
+    public Iterator<Map.Entry<String, String>> iterator() {
+      throw new UnsupportedOperationException("iterator should never be used with Tracer.inject()");
+    }
+
+    @Override
+    public void put(String key, String value) {
+      int size = compact
+          ? CompactContextCodec.sizeOf(key, value) + (empty ? 0 : 1)
+          : HeaderBudget.sizeOf(JmsTextMapInjectAdapter.encodeDash(key), value);
+      if (budget != null && !budget.admits(key, size, reserved + bytes)) {
+        dropped++;
+        return;
+      }
+      bytes += size;
+      empty = false;
+      carrier.put(key, value);
+    }
+  }
+
+  private static String compactContextOf(Message message) {
+    if (message == null) {
+      return null;
+    }
+    try {
+      Object value = message.getObjectProperty(CONTEXT_PROPERTY);
+      return value instanceof String ? (String) value : null;
+    } catch (JMSException e) {
+      return null;
+    }
+  }
+
+  static SpanContext activeContext(Tracer tracer) {
     Span span = tracer.activeSpan();
     return span != null ? span.context() : null;
   }
 
+  private static SpanContext extractFromMessage(Message message, Tracer tracer) {
+    String compact = compactContextOf(message);
+    if (compact != null) {
+      return tracer.extract(Format.Builtin.TEXT_MAP,
+          new TextMapAdapter(CompactContextCodec.decode(compact)));
+    }
+    PropagationKeys keys = propagationKeys;
+    if (keys == null) {
+      return tracer.extract(Format.Builtin.TEXT_MAP, new JmsTextMapExtractAdapter(message));
+    }
+    if (!keys.isPresentOn(message)) {
+      return null;
+    }
+    return tracer.extract(Format.Builtin.TEXT_MAP, new JmsTextMapExtractAdapter(message, keys));
+  }
+
   /**
    * Start message producer {@code span} and inject {@code spanContext} into the {@code message}.
+   * The span is a child of the context carried by a forwarded message, otherwise of the active
+   * span.
    *
    * @param destination the destination
    * @param message     the JMS message
@@ -82,26 +594,129 @@ public class TracingMessageUtils {
    * @return the span
    */
   public static Span startAndInjectSpan(Destination destination, Message message, Tracer tracer) {
-    SpanContext context = extract(message, tracer);
+    return startAndInjectSpan(DestinationMetadata.of(destination), message, tracer);
+  }
+
+  /**
+   * Start message producer {@code span} and inject {@code spanContext} into the {@code message}.
+   * A no-op span is returned if a forwarded message is flagged as not sampled or the rate limit of
+   * the destination is exceeded.
+   *
+   * @param destination the resolved destination metadata
+   * @param message     the JMS message
+   * @param tracer      the tracer
+   * @return the span
+   */
+  public static Span startAndInjectSpan(DestinationMetadata destination, Message message,
+      Tracer tracer) {
+    boolean forwarded = mayCarrySpanContext(message);
+    if (!admitsSend(destination, message, forwarded)) {
+      return NoopSpan.INSTANCE;
+    }
+    SpanContext context = forwarded ? extract(message, tracer) : activeContext(tracer);
     Span span = tracer.buildSpan(TracingMessageUtils.OPERATION_NAME_SEND)
             .ignoreActiveSpan()
             .withTag(Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_PRODUCER)
             .asChildOf(context)
             .start();
     SpanJmsDecorator.onRequest(destination, span);
-    inject(span, message, tracer);
+    inject(destination, span.context(), message, tracer);
     return span;
   }
 
   /**
-   * Inject {@code spanContext} into the {@code message}.
+   * Start one producer {@code span} for a batch of messages sent to the same destination and
+   * inject its {@code spanContext} into every message. The context is injected once and the
+   * resulting properties are copied to the messages, so the tracer is called once per batch.
+   * A no-op span is returned and the messages are flagged with {@link #SAMPLED_PROPERTY} if the
+   * rate limit of the destination is exceeded.
+   *
+   * @param destination the resolved destination metadata
+   * @param messages    the JMS messages of the batch
+   * @param tracer      the tracer
+   * @return the batch span
+   */
+  public static Span startAndInjectBatchSpan(DestinationMetadata destination,
+      List<? extends Message> messages, Tracer tracer) {
+    if (!admitsBatch(destination, messages)) {
+      return NoopSpan.INSTANCE;
+    }
+    Span span = tracer.buildSpan(OPERATION_NAME_SEND_BATCH)
+        .ignoreActiveSpan()
+        .withTag(Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_PRODUCER)
+        .withTag(BATCH_SIZE_TAG, messages.size())
+        .asChildOf(activeContext(tracer))
+        .start();
+    SpanJmsDecorator.onRequest(destination, span);
+    inject(destination, span.context(), messages, tracer);
+    return span;
+  }
+
+  /**
+   * Inject the {@code context} into every message of a batch, the tracer is called once.
+   */
+  static void inject(DestinationMetadata destination, SpanContext context,
+      List<? extends Message> messages, Tracer tracer) {
+    boolean compact = compactContext;
+    InjectedProperties properties = new InjectedProperties(compact);
+    byte sampled = samplingFlag(context);
+    MeasuredTextMap measured = injectMeasured(context, properties, tracer, compact, sampled);
+    for (Message message : messages) {
+      properties.copyTo(message);
+      boolean sendTime = stampSendTime(message);
+      boolean flagged = markTraced(message, sampled);
+      if (measured != null) {
+        JmsMetrics.recordInjection(destination,
+            measured.bytes + stampedBytes(sendTime, flagged), measured.dropped);
+      }
+    }
+  }
+
+  /**
+   * Inject {@code spanContext} and, if enabled, the send time and the sampling decision into the
+   * {@code message}. Baggage items are filtered by the {@link HeaderBudget}, if set.
    *
    * @param span    the span
    * @param message the JMS message
    * @param tracer  the tracer
    */
   public static void inject(Span span, Message message, Tracer tracer) {
-    tracer.inject(span.context(), Format.Builtin.TEXT_MAP, new JmsTextMapInjectAdapter(message));
+    inject(null, span.context(), message, tracer);
+  }
+
+  static void inject(DestinationMetadata destination, SpanContext context, Message message,
+      Tracer tracer) {
+    boolean compact = compactContext;
+    InjectedProperties properties = compact ? new InjectedProperties(true) : null;
+    TextMap carrier = properties != null ? properties : new JmsTextMapInjectAdapter(message);
+    byte sampled = samplingFlag(context);
+    MeasuredTextMap measured = injectMeasured(context, carrier, tracer, compact, sampled);
+    if (properties != null) {
+      properties.copyTo(message);
+    }
+    boolean sendTime = stampSendTime(message);
+    boolean flagged = markTraced(message, sampled);
+    if (measured != null) {
+      JmsMetrics.recordInjection(destination, measured.bytes + stampedBytes(sendTime, flagged),
+          measured.dropped);
+    }
+  }
+
+  /**
+   * @param sampled the flag stamped after injection or {@code -1}
+   * @return the measured carrier or {@code null} if neither a budget nor metrics apply
+   */
+  private static MeasuredTextMap injectMeasured(SpanContext context, TextMap carrier,
+      Tracer tracer, boolean compact, byte sampled) {
+    HeaderBudget budget = headerBudget;
+    if (budget == null && !JmsMetrics.isEnabled()) {
+      tracer.inject(context, Format.Builtin.TEXT_MAP, carrier);
+      return null;
+    }
+    MeasuredTextMap measured = new MeasuredTextMap(carrier, budget, compact,
+        stampedBytes(injectSendTime, sampled >= 0));
+    tracer.inject(context, Format.Builtin.TEXT_MAP, measured);
+    return measured;
   }
 
   /**
@@ -113,13 +728,29 @@ public class TracingMessageUtils {
    * @return the span
    */
   private static Span startConsumerSpan(Message message, Tracer tracer, String operationName) {
-    SpanContext context = extract(message, tracer);
+    if (isNotSampled(message)) {
+      recordDwellTime(message);
+      return NoopSpan.INSTANCE;
+    }
+    DestinationMetadata destination = destinationOf(message);
+    long dwellTime = dwellTimeMillis(message);
+    JmsMetrics.recordDwellTime(destination, dwellTime);
+    SpanContext context = extractValid(message, tracer);
+    if (!admitsReceive(destination, message, context)) {
+      return NoopSpan.INSTANCE;
+    }
+    if (context == null) {
+      context = activeContext(tracer);
+    }
     Span span = tracer.buildSpan(operationName)
             .ignoreActiveSpan()
             .withTag(Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_CONSUMER)
             .addReference(References.FOLLOWS_FROM, context)
             .start();
-    SpanJmsDecorator.onResponse(message, span);
+    SpanJmsDecorator.onResponse(destination, span);
+    if (dwellTime >= 0) {
+      span.setTag(DWELL_TIME_TAG, dwellTime);
+    }
     return span;
   }
 }
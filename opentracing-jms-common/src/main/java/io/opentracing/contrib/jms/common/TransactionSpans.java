@@ -0,0 +1,315 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.common;
+
+import io.opentracing.References;
+import io.opentracing.Span;
+import io.opentracing.SpanContext;
+import io.opentracing.Tracer;
+import io.opentracing.noop.NoopSpan;
+import io.opentracing.tag.Tags;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import jakarta.jms.Message;
+
+/**
+ * Sends, receives and listener invocations of a transacted session, reported when the transaction
+ * completes. Until then
+ * only a lightweight record of each traced operation is kept: its destination, its timing and the
+ * context it follows from.
+ * <p>
+ * The {@link TracingMessageUtils#OPERATION_NAME_COMMIT} span of a transaction starts with its first
+ * traced send or receive. Its context is injected into the messages sent in the transaction, which
+ * become visible when it commits. On completion the send and receive spans are built from the
+ * records as its children, with their original timing. The commit span logs a {@code commit}
+ * event when the commit starts and finishes when the commit returns. On rollback all spans are
+ * tagged with {@link #ROLLED_BACK_TAG}. Like the session, an instance is meant to be used by one
+ * thread at a time.
+ */
+public final class TransactionSpans {
+
+  /**
+   * Tag with the number of spans completed by a commit span.
+   */
+  public static final String SPAN_COUNT_TAG = "messaging.transaction.span_count";
+
+  /**
+   * Boolean tag set on the spans of a rolled back transaction.
+   */
+  public static final String ROLLED_BACK_TAG = "messaging.transaction.rolled_back";
+
+  private static final String COMMIT_EVENT = "commit";
+
+  private final Tracer tracer;
+  private final List<Record> records = new ArrayList<>();
+  private Span commitSpan;
+  private SpanContext commitParent;
+  private long startMicros;
+  private long startNanos;
+  private long commitNanos;
+
+  public TransactionSpans(Tracer tracer) {
+    this.tracer = tracer;
+  }
+
+  /**
+   * Record a send and inject the context of the commit span into the {@code message}.
+   *
+   * @param destination the destination of the message
+   * @param message     the message to send
+   * @return the index of the record to pass to {@link #finished(int, Throwable)}, {@code -1} if
+   * the send is not traced
+   */
+  public int startSend(DestinationMetadata destination, Message message) {
+    boolean forwarded = TracingMessageUtils.mayCarrySpanContext(message);
+    if (!TracingMessageUtils.admitsSend(destination, message, forwarded)) {
+      return -1;
+    }
+    SpanContext reference = forwarded ? TracingMessageUtils.extract(message, tracer)
+        : TracingMessageUtils.activeContext(tracer);
+    SpanContext context = commitContext();
+    TracingMessageUtils.inject(destination, context, message, tracer);
+    return add(new Record(TracingMessageUtils.OPERATION_NAME_SEND, false, destination, reference,
+        0, -1));
+  }
+
+  /**
+   * Record a batch send and inject the context of the commit span into every message.
+   *
+   * @param destination the destination of the messages
+   * @param messages    the messages to send
+   * @return the index of the record to pass to {@link #finished(int, Throwable)}, {@code -1} if
+   * the batch is not traced
+   */
+  public int startBatch(DestinationMetadata destination, List<? extends Message> messages) {
+    if (!TracingMessageUtils.admitsBatch(destination, messages)) {
+      return -1;
+    }
+    SpanContext reference = TracingMessageUtils.activeContext(tracer);
+    SpanContext context = commitContext();
+    TracingMessageUtils.inject(destination, context, messages, tracer);
+    return add(new Record(TracingMessageUtils.OPERATION_NAME_SEND_BATCH, false, destination,
+        reference, messages.size(), -1));
+  }
+
+  /**
+   * @param index the index returned by {@link #startSend(DestinationMetadata, Message)} or {@link
+   *              #startBatch(DestinationMetadata, List)}
+   * @param error the error of the send or {@code null}
+   */
+  public void finished(int index, Throwable error) {
+    if (index < 0) {
+      return;
+    }
+    Record record = records.get(index);
+    record.finishNanos = System.nanoTime();
+    record.error = error;
+  }
+
+  /**
+   * Record the receive of a {@code message}.
+   *
+   * @param message the received message
+   * @return the context of the commit span, the parent of the receive span, or a no-op context if
+   * the message is not traced
+   */
+  public SpanContext received(Message message) {
+    int index = record(TracingMessageUtils.OPERATION_NAME_RECEIVE, message);
+    if (index < 0) {
+      return NoopSpan.INSTANCE.context();
+    }
+    Record record = records.get(index);
+    record.finishNanos = record.startNanos;
+    return commitSpan.context();
+  }
+
+  /**
+   * Record the processing of a received {@code message} by a listener. While the listener runs,
+   * the commit span is meant to be active.
+   *
+   * @param message the received message
+   * @return the index of the record to pass to {@link #finished(int, Throwable)}, {@code -1} if
+   * the message is not traced
+   */
+  public int startProcess(Message message) {
+    return record(TracingMessageUtils.OPERATION_NAME_ON_MESSAGE, message);
+  }
+
+  /**
+   * @return the commit span of the current transaction, {@code null} if nothing is recorded
+   */
+  Span commitSpan() {
+    return commitSpan;
+  }
+
+  /**
+   * @return the number of sends and receives waiting for the transaction to complete
+   */
+  public int pending() {
+    return records.size();
+  }
+
+  /**
+   * Mark the start of the commit.
+   */
+  public void startCommit() {
+    commitNanos = System.nanoTime();
+    if (commitSpan != null) {
+      commitSpan.log(micros(commitNanos), COMMIT_EVENT);
+    }
+  }
+
+  /**
+   * Record the commit latency and report the spans of the transaction.
+   */
+  public void committed() {
+    JmsMetrics.recordCommit(System.nanoTime() - commitNanos);
+    complete(false);
+  }
+
+  /**
+   * Report the spans of the transaction, the commit span with the {@code error} of the commit.
+   */
+  public void commitFailed(Throwable error) {
+    if (commitSpan != null) {
+      SpanJmsDecorator.onError(error, commitSpan);
+    }
+    complete(true);
+  }
+
+  /**
+   * Report the spans of the transaction tagged with {@link #ROLLED_BACK_TAG}.
+   */
+  public void rolledBack() {
+    complete(true);
+  }
+
+  private SpanContext commitContext() {
+    if (commitSpan == null) {
+      commitParent = TracingMessageUtils.activeContext(tracer);
+      startMicros = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+      startNanos = System.nanoTime();
+      commitSpan = tracer.buildSpan(TracingMessageUtils.OPERATION_NAME_COMMIT)
+          .asChildOf(commitParent)
+          .withStartTimestamp(startMicros)
+          .start();
+      Tags.COMPONENT.set(commitSpan, TracingMessageUtils.COMPONENT_NAME);
+    }
+    return commitSpan.context();
+  }
+
+  private int record(String operation, Message message) {
+    if (TracingMessageUtils.isNotSampled(message)) {
+      TracingMessageUtils.recordDwellTime(message);
+      return -1;
+    }
+    DestinationMetadata destination = TracingMessageUtils.destinationOf(message);
+    long dwellTime = TracingMessageUtils.dwellTimeMillis(message);
+    JmsMetrics.recordDwellTime(destination, dwellTime);
+    SpanContext reference = TracingMessageUtils.extractValid(message, tracer);
+    if (!TracingMessageUtils.admitsReceive(destination, message, reference)) {
+      return -1;
+    }
+    if (reference == null) {
+      reference = TracingMessageUtils.activeContext(tracer);
+    }
+    commitContext();
+    return add(new Record(operation, true, destination, reference, 0, dwellTime));
+  }
+
+  private int add(Record record) {
+    if (record.reference == commitParent || record.reference == commitSpan.context()) {
+      // already the parent of the commit span or of the recorded span
+      record.reference = null;
+    }
+    records.add(record);
+    return records.size() - 1;
+  }
+
+  private void complete(boolean rolledBack) {
+    Span parent = commitSpan;
+    if (parent == null) {
+      return;
+    }
+    for (Record record : records) {
+      Tracer.SpanBuilder builder = tracer.buildSpan(record.operation)
+          .ignoreActiveSpan()
+          .asChildOf(parent)
+          .withStartTimestamp(micros(record.startNanos))
+          .withTag(Tags.SPAN_KIND.getKey(),
+              record.consumer ? Tags.SPAN_KIND_CONSUMER : Tags.SPAN_KIND_PRODUCER);
+      if (record.reference != null) {
+        builder.addReference(References.FOLLOWS_FROM, record.reference);
+      }
+      if (record.batchSize > 0) {
+        builder.withTag(TracingMessageUtils.BATCH_SIZE_TAG, record.batchSize);
+      }
+      Span span = builder.start();
+      if (record.consumer) {
+        SpanJmsDecorator.onResponse(record.destination, span);
+      } else {
+        SpanJmsDecorator.onRequest(record.destination, span);
+      }
+      if (record.dwellTime >= 0) {
+        span.setTag(TracingMessageUtils.DWELL_TIME_TAG, record.dwellTime);
+      }
+      if (record.error != null) {
+        SpanJmsDecorator.onError(record.error, span);
+      }
+      if (rolledBack) {
+        span.setTag(ROLLED_BACK_TAG, true);
+      }
+      // a send which never returned ends with the transaction
+      span.finish(micros(record.finishNanos != 0 ? record.finishNanos : System.nanoTime()));
+    }
+    parent.setTag(SPAN_COUNT_TAG, records.size());
+    if (rolledBack) {
+      parent.setTag(ROLLED_BACK_TAG, true);
+    }
+    parent.finish(micros(System.nanoTime()));
+    records.clear();
+    commitSpan = null;
+    commitParent = null;
+  }
+
+  /**
+   * @return the timestamp of {@code nanos} on the clock of the commit span
+   */
+  private long micros(long nanos) {
+    return startMicros + TimeUnit.NANOSECONDS.toMicros(nanos - startNanos);
+  }
+
+  private static final class Record {
+    final String operation;
+    final boolean consumer;
+    final DestinationMetadata destination;
+    SpanContext reference;
+    final int batchSize;
+    final long dwellTime;
+    final long startNanos = System.nanoTime();
+    long finishNanos;
+    Throwable error;
+
+    Record(String operation, boolean consumer, DestinationMetadata destination,
+        SpanContext reference, int batchSize, long dwellTime) {
+      this.operation = operation;
+      this.consumer = consumer;
+      this.destination = destination;
+      this.reference = reference;
+      this.batchSize = batchSize;
+      this.dwellTime = dwellTime;
+    }
+  }
+}
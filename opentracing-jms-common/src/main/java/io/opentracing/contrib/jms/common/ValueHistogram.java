@@ -0,0 +1,74 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.common;
+
+/**
+ * Lock-free histogram of non-negative values of any unit, such as sizes in bytes. Buckets and
+ * precision are those of {@link LatencyHistogram}: values up to about 10^12 are tracked with a
+ * relative error below about 3%.
+ */
+public final class ValueHistogram {
+
+  private final LatencyHistogram histogram = new LatencyHistogram();
+
+  /**
+   * @param value the value, negative values are recorded as 0
+   */
+  public void record(long value) {
+    histogram.record(value);
+  }
+
+  public Snapshot snapshot() {
+    return new Snapshot(histogram.snapshot());
+  }
+
+  /**
+   * Point-in-time copy of a {@link ValueHistogram}, values are in the unit of the recorded values.
+   */
+  public static final class Snapshot {
+
+    private final LatencyHistogram.Snapshot snapshot;
+
+    Snapshot(LatencyHistogram.Snapshot snapshot) {
+      this.snapshot = snapshot;
+    }
+
+    public long getCount() {
+      return snapshot.getCount();
+    }
+
+    /**
+     * @return the largest recorded value
+     */
+    public long getMax() {
+      return snapshot.getMax();
+    }
+
+    /**
+     * @return the mean of the recorded values
+     */
+    public double getMean() {
+      return snapshot.getMean();
+    }
+
+    /**
+     * @param percentile the percentile, e.g. {@code 99.9}
+     * @return the value at or below which {@code percentile} percent of the recorded values fall,
+     * {@code 0} if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+      return snapshot.getValueAtPercentile(percentile);
+    }
+  }
+}
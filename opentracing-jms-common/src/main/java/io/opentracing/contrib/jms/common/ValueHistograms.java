@@ -0,0 +1,46 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.common;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link ValueHistogram} per destination, indexed by the interned destination id.
+ */
+public final class ValueHistograms {
+
+  private final LatencyHistograms histograms = new LatencyHistograms();
+
+  /**
+   * @param destination the destination or {@code null}
+   * @param value       the value
+   */
+  public void record(DestinationMetadata destination, long value) {
+    histograms.record(destination, value);
+  }
+
+  /**
+   * @return snapshots of the destinations with recorded values keyed by destination kind and
+   * name, e.g. {@code queue://orders}, with all temporary destinations under {@code temporary}
+   */
+  public Map<String, ValueHistogram.Snapshot> snapshot() {
+    Map<String, ValueHistogram.Snapshot> snapshots = new LinkedHashMap<>();
+    for (Map.Entry<String, LatencyHistogram.Snapshot> entry : histograms.snapshot().entrySet()) {
+      snapshots.put(entry.getKey(), new ValueHistogram.Snapshot(entry.getValue()));
+    }
+    return Collections.unmodifiableMap(snapshots);
+  }
+}
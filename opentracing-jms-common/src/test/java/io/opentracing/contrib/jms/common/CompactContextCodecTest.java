@@ -0,0 +1,47 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.common;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CompactContextCodecTest {
+
+  @Test
+  public void roundTrip() {
+    Map<String, String> headers = new LinkedHashMap<>();
+    headers.put("traceid", "4bf92f3577b34da6");
+    headers.put("ot-baggage-user", "a=b&c%d");
+    headers.put("empty", "");
+
+    StringBuilder encoded = new StringBuilder();
+    for (Map.Entry<String, String> header : headers.entrySet()) {
+      CompactContextCodec.append(encoded, header.getKey(), header.getValue());
+    }
+    Assertions.assertEquals(
+        "traceid=4bf92f3577b34da6&ot-baggage-user=a%3Db%26c%25d&empty=", encoded.toString());
+    Assertions.assertEquals(headers, CompactContextCodec.decode(encoded.toString()));
+  }
+
+  @Test
+  public void decodeIgnoresMalformedEntries() {
+    Map<String, String> headers = CompactContextCodec.decode("=x&novalue&&key=v%zz%4");
+    Assertions.assertEquals(1, headers.size());
+    Assertions.assertEquals("v%zz%4", headers.get("key"));
+    Assertions.assertTrue(CompactContextCodec.decode("").isEmpty());
+    Assertions.assertTrue(CompactContextCodec.decode(null).isEmpty());
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.common;
+
+import static io.opentracing.contrib.jms.common.JmsTextMapInjectAdapter.DASH;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DashEncodingCacheTest {
+
+  @Test
+  public void encode() {
+    Assertions.assertEquals("uber" + DASH + "trace" + DASH + "id",
+        DashEncodingCache.encode("uber-trace-id"));
+    Assertions.assertSame(DashEncodingCache.encode("uber-trace-id"),
+        DashEncodingCache.encode("uber-trace-id"));
+  }
+
+  @Test
+  public void decode() {
+    Assertions.assertEquals("-key-1-", DashEncodingCache.decode(DASH + "key" + DASH + "1" + DASH));
+    Assertions.assertEquals("key", DashEncodingCache.decode("key"));
+  }
+
+  @Test
+  public void roundTrip() {
+    String encoded = DashEncodingCache.encode("x-b3-traceid");
+    Assertions.assertEquals("x-b3-traceid", DashEncodingCache.decode(encoded));
+  }
+
+  @Test
+  public void tracerKeysAreSeeded() {
+    // a consumer-only process decodes to the seeded constant without encoding first
+    Assertions.assertSame("x-datadog-parent-id",
+        DashEncodingCache.decode("x" + DASH + "datadog" + DASH + "parent" + DASH + "id"));
+  }
+
+  @Test
+  public void applicationNamesDoNotDisplaceTracerKeys() {
+    String encoded = DashEncodingCache.encode("x-tracer-key");
+    String decoded = DashEncodingCache.decode(encoded);
+    for (int i = 0; i < DashEncodingCache.MAX_SIZE * 2; i++) {
+      Assertions.assertEquals("app-" + i, DashEncodingCache.decode("app" + DASH + i));
+      Assertions.assertEquals("plain" + i, DashEncodingCache.decode("plain" + i));
+    }
+    Assertions.assertSame(encoded, DashEncodingCache.encode("x-tracer-key"));
+    Assertions.assertSame(decoded, DashEncodingCache.decode(encoded));
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.common;
+
+import org.apache.activemq.artemis.jms.client.ActiveMQQueue;
+import org.apache.activemq.artemis.jms.client.ActiveMQTopic;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DestinationCountersTest {
+
+  @AfterEach
+  public void after() {
+    JmsMetrics.setEnabled(false);
+  }
+
+  @Test
+  public void countersPerDestination() {
+    DestinationCounters counters = new DestinationCounters();
+    DestinationMetadata orders = DestinationMetadata.of(new ActiveMQQueue("counters.orders"));
+    counters.send(orders, 3);
+    counters.receive(orders);
+    counters.emptyPoll(orders);
+    counters.emptyPoll(orders);
+    counters.listenerInvocation(orders);
+    counters.error(orders);
+    counters.receive(null);
+
+    DestinationCounters.Snapshot snapshot = counters.snapshot().get("queue://counters.orders");
+    Assertions.assertEquals(3, snapshot.getSends());
+    Assertions.assertEquals(1, snapshot.getReceives());
+    Assertions.assertEquals(2, snapshot.getEmptyPolls());
+    Assertions.assertEquals(1, snapshot.getListenerInvocations());
+    Assertions.assertEquals(1, snapshot.getErrors());
+    Assertions.assertEquals(1, counters.snapshot().get("other").getReceives());
+  }
+
+  @Test
+  public void queueAndTopicCountedSeparately() {
+    DestinationCounters counters = new DestinationCounters();
+    counters.send(DestinationMetadata.of(new ActiveMQQueue("counters.shared")), 1);
+    counters.send(DestinationMetadata.of(new ActiveMQTopic("counters.shared")), 2);
+
+    Assertions.assertEquals(1, counters.snapshot().get("queue://counters.shared").getSends());
+    Assertions.assertEquals(2, counters.snapshot().get("topic://counters.shared").getSends());
+  }
+
+  @Test
+  public void recordOnlyWhenEnabled() {
+    DestinationMetadata disabled = DestinationMetadata.of(new ActiveMQQueue("counters.disabled"));
+    JmsMetrics.recordSend(disabled);
+    Assertions.assertNull(JmsMetrics.counters().snapshot().get("queue://counters.disabled"));
+
+    JmsMetrics.setEnabled(true);
+    DestinationMetadata enabled = DestinationMetadata.of(new ActiveMQQueue("counters.enabled"));
+    JmsMetrics.recordSend(enabled);
+    JmsMetrics.recordReceive(enabled, null);
+    Assertions.assertEquals(1,
+        JmsMetrics.counters().snapshot().get("queue://counters.enabled").getSends());
+    Assertions.assertEquals(1,
+        JmsMetrics.counters().snapshot().get("queue://counters.enabled").getEmptyPolls());
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.common;
+
+import org.apache.activemq.artemis.jms.client.ActiveMQQueue;
+import org.apache.activemq.artemis.jms.client.ActiveMQTopic;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DestinationFilterTest {
+
+  @Test
+  public void allTracesEverything() {
+    Assertions.assertTrue(DestinationFilter.ALL.isTraced(new ActiveMQQueue("orders")));
+    Assertions.assertTrue(DestinationFilter.ALL.isTraced((DestinationMetadata) null));
+  }
+
+  @Test
+  public void nullDestinationIsTraced() {
+    DestinationFilter filter = DestinationFilter.builder().include("orders").build();
+    Assertions.assertTrue(filter.isTraced((DestinationMetadata) null));
+  }
+
+  @Test
+  public void excludeExactName() {
+    DestinationFilter filter = DestinationFilter.builder().exclude("heartbeat").build();
+    Assertions.assertFalse(filter.isTraced(new ActiveMQQueue("heartbeat")));
+    Assertions.assertFalse(filter.isTraced(new ActiveMQTopic("heartbeat")));
+    Assertions.assertTrue(filter.isTraced(new ActiveMQQueue("heartbeats")));
+  }
+
+  @Test
+  public void excludePrefix() {
+    DestinationFilter filter = DestinationFilter.builder().exclude("cache.*").build();
+    Assertions.assertFalse(filter.isTraced(new ActiveMQQueue("cache.")));
+    Assertions.assertFalse(filter.isTraced(new ActiveMQQueue("cache.invalidate")));
+    Assertions.assertTrue(filter.isTraced(new ActiveMQQueue("cache")));
+  }
+
+  @Test
+  public void wildcards() {
+    DestinationFilter filter = DestinationFilter.builder().include("orders.*.eu", "audit.?").build();
+    Assertions.assertTrue(filter.isTraced(new ActiveMQQueue("orders.new.eu")));
+    Assertions.assertFalse(filter.isTraced(new ActiveMQQueue("orders.new.us")));
+    Assertions.assertTrue(filter.isTraced(new ActiveMQQueue("audit.1")));
+    Assertions.assertFalse(filter.isTraced(new ActiveMQQueue("audit.12")));
+  }
+
+  @Test
+  public void wildcardMetacharactersAreLiteral() {
+    DestinationFilter filter = DestinationFilter.builder().exclude("a+b.*(x)").build();
+    Assertions.assertFalse(filter.isTraced(new ActiveMQQueue("a+b.1(x)")));
+    Assertions.assertTrue(filter.isTraced(new ActiveMQQueue("aab.1(x)")));
+  }
+
+  @Test
+  public void excludeWinsOverInclude() {
+    DestinationFilter filter = DestinationFilter.builder()
+        .include("orders.*")
+        .exclude("orders.internal")
+        .build();
+    Assertions.assertTrue(filter.isTraced(new ActiveMQQueue("orders.created")));
+    Assertions.assertFalse(filter.isTraced(new ActiveMQQueue("orders.internal")));
+    Assertions.assertFalse(filter.isTraced(new ActiveMQQueue("payments")));
+  }
+}
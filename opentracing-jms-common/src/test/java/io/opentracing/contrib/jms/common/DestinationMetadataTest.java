@@ -0,0 +1,83 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.common;
+
+import org.apache.activemq.artemis.jms.client.ActiveMQDestination;
+import org.apache.activemq.artemis.jms.client.ActiveMQQueue;
+import org.apache.activemq.artemis.jms.client.ActiveMQTopic;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DestinationMetadataTest {
+
+  @Test
+  public void nullDestination() {
+    Assertions.assertNull(DestinationMetadata.of(null));
+  }
+
+  @Test
+  public void queue() {
+    DestinationMetadata metadata = DestinationMetadata.of(new ActiveMQQueue("orders"));
+    Assertions.assertEquals("orders", metadata.getName());
+    Assertions.assertEquals("orders", metadata.getDestinationTag());
+    Assertions.assertTrue(metadata.isQueue());
+    Assertions.assertFalse(metadata.isTopic());
+    Assertions.assertFalse(metadata.isTemporary());
+  }
+
+  @Test
+  public void topic() {
+    DestinationMetadata metadata = DestinationMetadata.of(new ActiveMQTopic("prices"));
+    Assertions.assertEquals("prices", metadata.getName());
+    Assertions.assertFalse(metadata.isQueue());
+    Assertions.assertTrue(metadata.isTopic());
+  }
+
+  @Test
+  public void temporaryQueue() {
+    DestinationMetadata metadata =
+        DestinationMetadata.of(ActiveMQDestination.createTemporaryQueue("reply"));
+    Assertions.assertEquals(DestinationMetadata.TEMPORARY_NAME, metadata.getName());
+    Assertions.assertTrue(metadata.isQueue());
+    Assertions.assertTrue(metadata.isTemporary());
+  }
+
+  @Test
+  public void queueAndTopicOfSameName() {
+    DestinationMetadata queue = DestinationMetadata.of(new ActiveMQQueue("shared"));
+    DestinationMetadata topic = DestinationMetadata.of(new ActiveMQTopic("shared"));
+    Assertions.assertEquals("queue://shared", queue.key());
+    Assertions.assertEquals("topic://shared", topic.key());
+    Assertions.assertNotEquals(queue.id(), topic.id());
+  }
+
+  @Test
+  public void cachedForEqualDestinations() {
+    ActiveMQQueue queue = new ActiveMQQueue("cached");
+    DestinationMetadata metadata = DestinationMetadata.of(queue);
+    Assertions.assertSame(metadata, DestinationMetadata.of(queue));
+    Assertions.assertSame(metadata, DestinationMetadata.of(new ActiveMQQueue("cached")));
+    Assertions.assertNotSame(metadata, DestinationMetadata.of(new ActiveMQTopic("cached")));
+  }
+
+  @Test
+  public void temporaryShared() {
+    ActiveMQDestination reply = ActiveMQDestination.createTemporaryQueue("reply-cache");
+    Assertions.assertSame(DestinationMetadata.of(reply),
+        DestinationMetadata.of(ActiveMQDestination.createTemporaryQueue("other-reply")));
+    Assertions.assertNotSame(DestinationMetadata.of(reply),
+        DestinationMetadata.of(ActiveMQDestination.createTemporaryTopic("reply-cache")));
+    Assertions.assertEquals(DestinationIds.TEMPORARY, DestinationMetadata.of(reply).id());
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.common;
+
+import io.opentracing.mock.MockSpan;
+import io.opentracing.mock.MockTracer;
+import io.opentracing.tag.Tags;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ErrorCaptureTest {
+
+  private final MockTracer mockTracer = new MockTracer();
+
+  @AfterEach
+  public void after() {
+    SpanJmsDecorator.setErrorCapture(null);
+  }
+
+  @Test
+  public void fullStackByDefault() {
+    Map<String, ?> fields = logError(new IllegalStateException("failed"));
+    Assertions.assertEquals(IllegalStateException.class.getName(), fields.get("error.kind"));
+    Assertions.assertEquals("failed", fields.get("message"));
+    Assertions.assertTrue(((String) fields.get("stack")).contains("fullStackByDefault"));
+  }
+
+  @Test
+  public void kindAndMessage() {
+    SpanJmsDecorator.setErrorCapture(ErrorCapture.KIND_AND_MESSAGE);
+    Map<String, ?> fields = logError(new IllegalStateException("failed"));
+    Assertions.assertEquals(IllegalStateException.class.getName(), fields.get("error.kind"));
+    Assertions.assertEquals("failed", fields.get("message"));
+    Assertions.assertFalse(fields.containsKey("stack"));
+  }
+
+  @Test
+  public void truncatedStack() {
+    Exception exception = new IllegalStateException("failed");
+    String stack = ErrorCapture.truncatedStack(2).stack(exception);
+    String[] lines = stack.split("\n");
+    Assertions.assertEquals(4, lines.length);
+    Assertions.assertEquals(exception.toString(), lines[0]);
+    Assertions.assertTrue(lines[1].contains("truncatedStack"));
+    Assertions.assertEquals(
+        "\t... " + (exception.getStackTrace().length - 2) + " more", lines[3]);
+  }
+
+  @Test
+  public void cachedStackPerCallSite() {
+    ErrorCapture capture = ErrorCapture.cachedStack();
+    String first = null;
+    for (int i = 0; i < 3; i++) {
+      String stack = capture.stack(new IllegalStateException("failed " + i));
+      if (first == null) {
+        first = stack;
+      }
+      Assertions.assertSame(first, stack);
+    }
+    Assertions.assertNotSame(first, capture.stack(new IllegalArgumentException("failed")));
+  }
+
+  private Map<String, ?> logError(Exception exception) {
+    MockSpan span = mockTracer.buildSpan("test").start();
+    SpanJmsDecorator.onError(exception, span);
+    Assertions.assertEquals(Boolean.TRUE, span.tags().get(Tags.ERROR.getKey()));
+    return span.logEntries().get(0).fields();
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.common;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class HeaderBudgetTest {
+
+  @Test
+  public void allowlistedBaggageOnly() {
+    HeaderBudget budget = HeaderBudget.builder().allowBaggage("Tenant").build();
+    Assertions.assertTrue(admits(budget, "traceid", "1", 0));
+    Assertions.assertTrue(admits(budget, "baggage-tenant", "acme", 0));
+    Assertions.assertTrue(admits(budget, "uberctx-TENANT", "acme", 0));
+    Assertions.assertFalse(admits(budget, "baggage-user", "alice", 0));
+  }
+
+  @Test
+  public void noAllowedBaggage() {
+    HeaderBudget budget = HeaderBudget.builder().allowBaggage().build();
+    Assertions.assertFalse(admits(budget, "ot-baggage-tenant", "acme", 0));
+    Assertions.assertTrue(admits(budget, "spanid", "2", 0));
+  }
+
+  @Test
+  public void baggageWithinMaxBytes() {
+    HeaderBudget budget = HeaderBudget.builder().maxBytes(32).build();
+    // 14 bytes
+    Assertions.assertTrue(admits(budget, "baggage-k", "value", 10));
+    Assertions.assertTrue(admits(budget, "baggage-k", "value", 18));
+    Assertions.assertFalse(admits(budget, "baggage-k", "value", 19));
+    // trace headers are never dropped
+    Assertions.assertTrue(admits(budget, "traceid", "value", 100));
+  }
+
+  @Test
+  public void sizeInUtf8() {
+    Assertions.assertEquals(4, HeaderBudget.sizeOf("k", "vé"));
+    Assertions.assertEquals(3, HeaderBudget.sizeOf(null, "€"));
+    Assertions.assertEquals(4, HeaderBudget.sizeOf("😀", null));
+  }
+
+  private static boolean admits(HeaderBudget budget, String key, String value, int used) {
+    return budget.admits(key, HeaderBudget.sizeOf(key, value), used);
+  }
+}
@@ -52,6 +52,7 @@ public class JmsTextMapExtractAdapterTest {
 
     config.addAcceptorConfiguration("in-vm", "vm://0");
     config.setSecurityEnabled(false);
+    config.setPersistenceEnabled(false);
     EmbeddedActiveMQ embedded = new EmbeddedActiveMQ();
     embedded.setConfiguration(config);
     embedded.start();
@@ -100,4 +101,26 @@ public class JmsTextMapExtractAdapterTest {
     Assertions.assertEquals("value1", entry.getValue());
   }
 
+  @Test
+  public void onlyPropagationKeys() throws JMSException {
+    message.setStringProperty("key", "value");
+    message.setStringProperty("trace" + DASH + "id", "123");
+    message.setStringProperty("other", "value");
+    JmsTextMapExtractAdapter adapter =
+        new JmsTextMapExtractAdapter(message, PropagationKeys.of("trace-id", "span-id"));
+    Iterator<Map.Entry<String, String>> iterator = adapter.iterator();
+    Map.Entry<String, String> entry = iterator.next();
+    Assertions.assertEquals("trace-id", entry.getKey());
+    Assertions.assertEquals("123", entry.getValue());
+    Assertions.assertFalse(iterator.hasNext());
+  }
+
+  @Test
+  public void propagationKeysPresent() throws JMSException {
+    PropagationKeys keys = PropagationKeys.of("trace-id");
+    Assertions.assertFalse(keys.isPresentOn(message));
+    message.setStringProperty("trace" + DASH + "id", "123");
+    Assertions.assertTrue(keys.isPresentOn(message));
+  }
+
 }
@@ -50,6 +50,7 @@ public class JmsTextMapInjectAdapterTest {
 
     config.addAcceptorConfiguration("in-vm", "vm://0");
     config.setSecurityEnabled(false);
+    config.setPersistenceEnabled(false);
     EmbeddedActiveMQ embedded = new EmbeddedActiveMQ();
     embedded.setConfiguration(config);
     embedded.start();
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.common;
+
+import java.util.Map;
+import org.apache.activemq.artemis.jms.client.ActiveMQDestination;
+import org.apache.activemq.artemis.jms.client.ActiveMQQueue;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class LatencyHistogramTest {
+
+  @Test
+  public void bucketsCoverValuesWithBoundedError() {
+    for (long value = 0; value < 1L << 40; value = value * 3 / 2 + 1) {
+      int index = LatencyHistogram.indexOf(value);
+      long highest = LatencyHistogram.highestValueAt(index);
+      Assertions.assertTrue(index < LatencyHistogram.BUCKETS);
+      Assertions.assertTrue(highest >= value, "value " + value);
+      Assertions.assertTrue(highest - value <= value / 32, "value " + value);
+      if (index > 0) {
+        Assertions.assertTrue(LatencyHistogram.highestValueAt(index - 1) < value);
+      }
+    }
+  }
+
+  @Test
+  public void percentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (long i = 1; i <= 1000; i++) {
+      histogram.record(i * 1000);
+    }
+    histogram.record(-1);
+
+    LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+    Assertions.assertEquals(1001, snapshot.getCount());
+    Assertions.assertEquals(1_000_000, snapshot.getMax());
+    Assertions.assertEquals(500_000, snapshot.getMean(), 1000);
+    Assertions.assertEquals(0, snapshot.getValueAtPercentile(0));
+    Assertions.assertEquals(500_000, snapshot.getValueAtPercentile(50), 500_000 / 32);
+    Assertions.assertEquals(990_000, snapshot.getValueAtPercentile(99), 990_000 / 32);
+    Assertions.assertEquals(1_000_000, snapshot.getValueAtPercentile(100));
+  }
+
+  @Test
+  public void emptySnapshot() {
+    LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+    Assertions.assertEquals(0, snapshot.getCount());
+    Assertions.assertEquals(0, snapshot.getValueAtPercentile(99.9));
+    Assertions.assertEquals(0, snapshot.getMean());
+  }
+
+  @Test
+  public void histogramPerDestination() {
+    LatencyHistograms histograms = new LatencyHistograms();
+    histograms.record(DestinationMetadata.of(new ActiveMQQueue("latency.a")), 10);
+    histograms.record(DestinationMetadata.of(new ActiveMQQueue("latency.a")), 20);
+    histograms.record(DestinationMetadata.of(new ActiveMQQueue("latency.b")), 30);
+    histograms.record(DestinationMetadata.of(ActiveMQDestination.createTemporaryQueue("tmp.1")), 40);
+    histograms.record(DestinationMetadata.of(ActiveMQDestination.createTemporaryQueue("tmp.2")), 50);
+
+    Map<String, LatencyHistogram.Snapshot> snapshot = histograms.snapshot();
+    Assertions.assertEquals(3, snapshot.size());
+    Assertions.assertEquals(2, snapshot.get("queue://latency.a").getCount());
+    Assertions.assertEquals(1, snapshot.get("queue://latency.b").getCount());
+    Assertions.assertEquals(2, snapshot.get("temporary").getCount());
+  }
+}
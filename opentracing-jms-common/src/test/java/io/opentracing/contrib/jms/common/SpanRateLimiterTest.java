@@ -0,0 +1,67 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.jms.common;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.activemq.artemis.jms.client.ActiveMQQueue;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SpanRateLimiterTest {
+
+  private final AtomicLong clock = new AtomicLong(-5_000_000_000L);
+
+  @Test
+  public void burstThenSustainedRate() {
+    SpanRateLimiter limiter = new SpanRateLimiter(10, 3, clock::get);
+    DestinationMetadata orders = DestinationMetadata.of(new ActiveMQQueue("orders"));
+
+    Assertions.assertTrue(limiter.tryAcquire(orders));
+    Assertions.assertTrue(limiter.tryAcquire(orders));
+    Assertions.assertTrue(limiter.tryAcquire(orders));
+    Assertions.assertFalse(limiter.tryAcquire(orders));
+
+    clock.addAndGet(50_000_000L);
+    Assertions.assertFalse(limiter.tryAcquire(orders));
+    clock.addAndGet(50_000_000L);
+    Assertions.assertTrue(limiter.tryAcquire(orders));
+    Assertions.assertFalse(limiter.tryAcquire(orders));
+
+    clock.addAndGet(10_000_000_000L);
+    Assertions.assertTrue(limiter.tryAcquire(orders));
+    Assertions.assertTrue(limiter.tryAcquire(orders));
+    Assertions.assertTrue(limiter.tryAcquire(orders));
+    Assertions.assertFalse(limiter.tryAcquire(orders));
+  }
+
+  @Test
+  public void bucketPerDestination() {
+    SpanRateLimiter limiter = new SpanRateLimiter(1, 1, clock::get);
+    DestinationMetadata orders = DestinationMetadata.of(new ActiveMQQueue("orders"));
+    DestinationMetadata payments = DestinationMetadata.of(new ActiveMQQueue("payments"));
+
+    Assertions.assertTrue(limiter.tryAcquire(orders));
+    Assertions.assertFalse(limiter.tryAcquire(orders));
+    Assertions.assertTrue(limiter.tryAcquire(payments));
+    Assertions.assertTrue(limiter.tryAcquire(null));
+    Assertions.assertFalse(limiter.tryAcquire(null));
+  }
+
+  @Test
+  public void invalidArguments() {
+    Assertions.assertThrows(IllegalArgumentException.class, () -> SpanRateLimiter.perSecond(0));
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> SpanRateLimiter.perSecond(1, 0));
+  }
+}
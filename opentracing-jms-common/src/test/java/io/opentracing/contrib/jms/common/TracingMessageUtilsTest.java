@@ -17,9 +17,11 @@ import io.opentracing.Span;
 import io.opentracing.SpanContext;
 import io.opentracing.mock.MockSpan;
 import io.opentracing.mock.MockTracer;
+import io.opentracing.noop.NoopSpan;
 import io.opentracing.tag.Tags;
 import jakarta.jms.Destination;
 import jakarta.jms.JMSException;
+import jakarta.jms.Message;
 import org.apache.activemq.artemis.api.core.ActiveMQException;
 import org.apache.activemq.artemis.api.core.client.ActiveMQClient;
 import org.apache.activemq.artemis.api.core.client.ClientSession;
@@ -36,6 +38,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
 
 
 
@@ -52,6 +57,7 @@ public class TracingMessageUtilsTest {
       Configuration config = new ConfigurationImpl();
       config.addAcceptorConfiguration("in-vm", "vm://0");
       config.setSecurityEnabled(false);
+      config.setPersistenceEnabled(false);
       EmbeddedActiveMQ embeddedActiveMQ = new EmbeddedActiveMQ();
       embeddedActiveMQ.setConfiguration(config);
       embeddedActiveMQ.start();
@@ -148,6 +154,7 @@ public class TracingMessageUtilsTest {
     //embeddedActiveMQ.stop();
     Assertions.assertFalse(message.getCoreMessage().getPropertyNames().isEmpty());
     Assertions.assertEquals(span.context().spanId(), injected.parentId());
+    Assertions.assertEquals("queue", injected.tags().get(Tags.MESSAGE_BUS_DESTINATION.getKey()));
   }
 
   @Test
@@ -182,4 +189,296 @@ public class TracingMessageUtilsTest {
     Assertions.assertEquals(span.parentId(), parent.context().spanId());
   }
 
+  @Test
+  public void extractWithPropagationKeys() throws Exception {
+    TracingMessageUtils.setPropagationKeys(PropagationKeys.of("traceid", "spanid"));
+    try {
+      ActiveMQTextMessage message = new ActiveMQTextMessage(clientSession);
+      message.setStringProperty("key", "value");
+      Assertions.assertNull(TracingMessageUtils.extract(message, mockTracer));
+
+      MockSpan span = mockTracer.buildSpan("test").start();
+      TracingMessageUtils.inject(span, message, mockTracer);
+      MockSpan.MockContext context =
+          (MockSpan.MockContext) TracingMessageUtils.extract(message, mockTracer);
+      Assertions.assertNotNull(context);
+      Assertions.assertEquals(span.context().spanId(), context.spanId());
+    } finally {
+      TracingMessageUtils.setPropagationKeys(null);
+    }
+  }
+
+  @Test
+  public void compactContextWithLegacyFallback() throws Exception {
+    MockSpan span = mockTracer.buildSpan("test").start();
+    ActiveMQTextMessage compact = new ActiveMQTextMessage(clientSession);
+    TracingMessageUtils.setCompactContext(true);
+    try {
+      TracingMessageUtils.inject(span, compact, mockTracer);
+    } finally {
+      TracingMessageUtils.setCompactContext(false);
+    }
+    Assertions.assertTrue(compact.propertyExists(TracingMessageUtils.CONTEXT_PROPERTY));
+    Assertions.assertFalse(compact.propertyExists("traceid"));
+    Assertions.assertFalse(compact.propertyExists("spanid"));
+
+    ActiveMQTextMessage legacy = new ActiveMQTextMessage(clientSession);
+    TracingMessageUtils.inject(span, legacy, mockTracer);
+    Assertions.assertFalse(legacy.propertyExists(TracingMessageUtils.CONTEXT_PROPERTY));
+
+    TracingMessageUtils.setPropagationKeys(PropagationKeys.of("traceid", "spanid"));
+    try {
+      for (ActiveMQTextMessage message : Arrays.asList(compact, legacy)) {
+        MockSpan.MockContext context =
+            (MockSpan.MockContext) TracingMessageUtils.extract(message, mockTracer);
+        Assertions.assertEquals(span.context().spanId(), context.spanId());
+      }
+    } finally {
+      TracingMessageUtils.setPropagationKeys(null);
+    }
+  }
+
+  @Test
+  public void headerBudgetDropsBaggage() throws Exception {
+    MockSpan span = mockTracer.buildSpan("test").start();
+    span.setBaggageItem("tenant", "acme");
+    span.setBaggageItem("payload", "too large to be copied onto every message");
+    mockTracer.scopeManager().activate(span);
+    ActiveMQTextMessage message = new ActiveMQTextMessage(clientSession);
+    DestinationMetadata destination = DestinationMetadata.of(new ActiveMQQueue("budgeted"));
+
+    TracingMessageUtils.setHeaderBudget(HeaderBudget.builder().allowBaggage("tenant").build());
+    JmsMetrics.setEnabled(true);
+    try {
+      MockSpan injected = (MockSpan) TracingMessageUtils.startAndInjectSpan(destination, message,
+          mockTracer);
+      Assertions.assertNotNull(injected);
+    } finally {
+      JmsMetrics.setEnabled(false);
+      TracingMessageUtils.setHeaderBudget(null);
+    }
+    Assertions.assertEquals("acme", message.getStringProperty("baggage__dash__tenant"));
+    Assertions.assertFalse(message.propertyExists("baggage__dash__payload"));
+    Assertions.assertEquals(1,
+        JmsMetrics.counters().snapshot().get("queue://budgeted").getDroppedBaggage());
+    Assertions.assertEquals(1,
+        JmsMetrics.injectedBytes().snapshot().get("queue://budgeted").getCount());
+  }
+
+  @Test
+  public void injectedBytesAreStoredBytes() throws Exception {
+    MockSpan span = mockTracer.buildSpan("test").start();
+    span.setBaggageItem("tenant", "a&b");
+    mockTracer.scopeManager().activate(span);
+    TracingMessageUtils.setInjectSendTime(true);
+    TracingMessageUtils.setSamplingDecision(context -> true);
+    JmsMetrics.setEnabled(true);
+    try {
+      for (boolean compact : new boolean[] {false, true}) {
+        TracingMessageUtils.setCompactContext(compact);
+        ActiveMQTextMessage message = new ActiveMQTextMessage(clientSession);
+        DestinationMetadata destination =
+            DestinationMetadata.of(new ActiveMQQueue("measured." + compact));
+        TracingMessageUtils.startAndInjectSpan(destination, message, mockTracer);
+
+        int stored = 0;
+        for (Enumeration<?> names = message.getPropertyNames(); names.hasMoreElements(); ) {
+          String name = (String) names.nextElement();
+          if (name.startsWith("JMSX")) {
+            // set by the provider
+            continue;
+          }
+          Object value = message.getObjectProperty(name);
+          stored += value instanceof String ? HeaderBudget.sizeOf(name, (String) value)
+              : name.length() + (value instanceof Long ? Long.BYTES : Byte.BYTES);
+        }
+        Assertions.assertEquals(stored,
+            JmsMetrics.injectedBytes().snapshot().get("queue://measured." + compact).getMax());
+      }
+    } finally {
+      JmsMetrics.setEnabled(false);
+      TracingMessageUtils.setCompactContext(false);
+      TracingMessageUtils.setSamplingDecision(null);
+      TracingMessageUtils.setInjectSendTime(false);
+    }
+  }
+
+  @Test
+  public void startAndInjectSpanForForwardedMessage() throws Exception {
+    Destination destination = new ActiveMQQueue("queue");
+
+    ActiveMQTextMessage message = new ActiveMQTextMessage(clientSession);
+    Assertions.assertFalse(TracingMessageUtils.mayCarrySpanContext(message));
+
+    MockSpan upstream = mockTracer.buildSpan("upstream").start();
+    TracingMessageUtils.inject(upstream, message, mockTracer);
+    message.setJMSDestination(destination);
+    Assertions.assertTrue(TracingMessageUtils.mayCarrySpanContext(message));
+
+    MockSpan active = mockTracer.buildSpan("active").start();
+    mockTracer.scopeManager().activate(active);
+
+    MockSpan injected =
+        (MockSpan) TracingMessageUtils.startAndInjectSpan(destination, message, mockTracer);
+    Assertions.assertEquals(upstream.context().spanId(), injected.parentId());
+  }
+
+  @Test
+  public void rateLimitedSpansAreNotSampled() throws Exception {
+    Destination destination = new ActiveMQQueue("limited");
+    TracingMessageUtils.setRateLimiter(SpanRateLimiter.perSecond(1, 1));
+    try {
+      ActiveMQTextMessage first = new ActiveMQTextMessage(clientSession);
+      Assertions.assertTrue(
+          TracingMessageUtils.startAndInjectSpan(destination, first, mockTracer) instanceof MockSpan);
+      Assertions.assertFalse(TracingMessageUtils.isNotSampled(first));
+
+      ActiveMQTextMessage second = new ActiveMQTextMessage(clientSession);
+      Span span = TracingMessageUtils.startAndInjectSpan(destination, second, mockTracer);
+      Assertions.assertSame(NoopSpan.INSTANCE, span);
+      Assertions.assertTrue(TracingMessageUtils.isNotSampled(second));
+    } finally {
+      TracingMessageUtils.setRateLimiter(null);
+    }
+  }
+
+  @Test
+  public void resentMessageIsTracedAfterRateLimit() throws Exception {
+    Destination destination = new ActiveMQQueue("limited-resend");
+    ActiveMQTextMessage message = new ActiveMQTextMessage(clientSession);
+    TracingMessageUtils.setRateLimiter(SpanRateLimiter.perSecond(1, 1));
+    try {
+      TracingMessageUtils.startAndInjectSpan(destination, new ActiveMQTextMessage(clientSession),
+          mockTracer);
+      Assertions.assertSame(NoopSpan.INSTANCE,
+          TracingMessageUtils.startAndInjectSpan(destination, message, mockTracer));
+    } finally {
+      TracingMessageUtils.setRateLimiter(null);
+    }
+    // sent before, so the message looks forwarded, but the flag was stamped by this process
+    message.setJMSDestination(destination);
+    Assertions.assertTrue(
+        TracingMessageUtils.startAndInjectSpan(destination, message, mockTracer) instanceof MockSpan);
+    Assertions.assertFalse(TracingMessageUtils.isNotSampled(message));
+  }
+
+  @Test
+  public void consumerFollowsProducerDecision() throws Exception {
+    Destination destination = new ActiveMQQueue("limited-consumer");
+    ActiveMQTextMessage traced = new ActiveMQTextMessage(clientSession);
+    ActiveMQTextMessage undecided = new ActiveMQTextMessage(clientSession);
+    traced.setJMSDestination(destination);
+    undecided.setJMSDestination(destination);
+    TracingMessageUtils.setRateLimiter(SpanRateLimiter.perSecond(1, 1));
+    try {
+      // the send spends the budget of the destination
+      TracingMessageUtils.startAndInjectSpan(destination, traced, mockTracer);
+      Assertions.assertTrue(
+          TracingMessageUtils.startListenerSpan(traced, mockTracer) instanceof MockSpan);
+      Assertions.assertSame(NoopSpan.INSTANCE,
+          TracingMessageUtils.startListenerSpan(undecided, mockTracer));
+    } finally {
+      TracingMessageUtils.setRateLimiter(null);
+    }
+  }
+
+  @Test
+  public void tracedMessageDelegatesEquality() {
+    ActiveMQTextMessage message = new ActiveMQTextMessage(clientSession);
+    Message traced = TracedMessage.wrap(message, null);
+    Assertions.assertNotEquals(traced, message);
+    Assertions.assertNotEquals(message, traced);
+    Assertions.assertEquals(traced, TracedMessage.wrap(message, null));
+    Assertions.assertEquals(message.hashCode(), traced.hashCode());
+    Assertions.assertEquals(message.toString(), traced.toString());
+  }
+
+  @Test
+  public void notSampledMessageSkipsConsumerSpan() throws Exception {
+    ActiveMQTextMessage message = new ActiveMQTextMessage(clientSession);
+    message.setByteProperty(TracingMessageUtils.SAMPLED_PROPERTY, (byte) 0);
+
+    Assertions.assertSame(NoopSpan.INSTANCE,
+        TracingMessageUtils.startListenerSpan(message, mockTracer));
+    TracingMessageUtils.startAndFinishConsumerSpan(message, mockTracer);
+    Assertions.assertTrue(mockTracer.finishedSpans().isEmpty());
+
+    message.setJMSDestination(new ActiveMQQueue("queue"));
+    Assertions.assertSame(NoopSpan.INSTANCE,
+        TracingMessageUtils.startAndInjectSpan(new ActiveMQQueue("forward"), message, mockTracer));
+  }
+
+  @Test
+  public void startListenerSpanWithDwellTime() throws Exception {
+    ActiveMQTextMessage message = new ActiveMQTextMessage(clientSession);
+    message.setJMSDestination(new ActiveMQQueue("dwell"));
+    message.setJMSTimestamp(System.currentTimeMillis() - 5000);
+
+    MockSpan span = (MockSpan) TracingMessageUtils.startListenerSpan(message, mockTracer);
+    long dwellTime = (Long) span.tags().get(TracingMessageUtils.DWELL_TIME_TAG);
+    Assertions.assertTrue(dwellTime >= 5000, "dwell time " + dwellTime);
+  }
+
+  @Test
+  public void dwellTimeFromSendTimeProperty() throws Exception {
+    ActiveMQTextMessage message = new ActiveMQTextMessage(clientSession);
+    message.setJMSTimestamp(0);
+    Assertions.assertEquals(-1, TracingMessageUtils.dwellTimeMillis(message));
+
+    TracingMessageUtils.setInjectSendTime(true);
+    try {
+      TracingMessageUtils.inject(mockTracer.buildSpan("send").start(), message, mockTracer);
+    } finally {
+      TracingMessageUtils.setInjectSendTime(false);
+    }
+    Assertions.assertTrue(message.propertyExists(TracingMessageUtils.SEND_TIME_PROPERTY));
+    Assertions.assertTrue(TracingMessageUtils.dwellTimeMillis(message) >= 0);
+
+    MockSpan span = (MockSpan) TracingMessageUtils.startListenerSpan(message, mockTracer);
+    Assertions.assertNotNull(span.tags().get(TracingMessageUtils.DWELL_TIME_TAG));
+  }
+
+  @Test
+  public void samplingDecisionIsStamped() throws Exception {
+    Destination destination = new ActiveMQQueue("decided");
+    ActiveMQTextMessage unsampled = new ActiveMQTextMessage(clientSession);
+    ActiveMQTextMessage sampled = new ActiveMQTextMessage(clientSession);
+
+    TracingMessageUtils.setSamplingDecision(context -> false);
+    try {
+      TracingMessageUtils.startAndInjectSpan(destination, unsampled, mockTracer);
+      TracingMessageUtils.setSamplingDecision(context -> true);
+      TracingMessageUtils.startAndInjectSpan(destination, sampled, mockTracer);
+    } finally {
+      TracingMessageUtils.setSamplingDecision(null);
+    }
+    Assertions.assertEquals(0, unsampled.getByteProperty(TracingMessageUtils.SAMPLED_PROPERTY));
+    Assertions.assertEquals(1, sampled.getByteProperty(TracingMessageUtils.SAMPLED_PROPERTY));
+
+    Assertions.assertSame(NoopSpan.INSTANCE,
+        TracingMessageUtils.startListenerSpan(unsampled, mockTracer));
+    Assertions.assertTrue(
+        TracingMessageUtils.startListenerSpan(sampled, mockTracer) instanceof MockSpan);
+  }
+
+  @Test
+  public void startAndInjectBatchSpan() throws Exception {
+    MockSpan parent = mockTracer.buildSpan("parent").start();
+    mockTracer.scopeManager().activate(parent);
+    List<ActiveMQTextMessage> messages = Arrays.asList(new ActiveMQTextMessage(clientSession),
+        new ActiveMQTextMessage(clientSession));
+
+    MockSpan batch = (MockSpan) TracingMessageUtils.startAndInjectBatchSpan(
+        DestinationMetadata.of(new ActiveMQQueue("batch")), messages, mockTracer);
+    Assertions.assertEquals(parent.context().spanId(), batch.parentId());
+    Assertions.assertEquals(2, batch.tags().get(TracingMessageUtils.BATCH_SIZE_TAG));
+    Assertions.assertEquals("batch", batch.tags().get(Tags.MESSAGE_BUS_DESTINATION.getKey()));
+
+    for (ActiveMQTextMessage message : messages) {
+      MockSpan.MockContext context =
+          (MockSpan.MockContext) TracingMessageUtils.extract(message, mockTracer);
+      Assertions.assertEquals(batch.context().spanId(), context.spanId());
+    }
+  }
+
 }